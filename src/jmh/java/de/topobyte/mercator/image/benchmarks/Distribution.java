@@ -0,0 +1,83 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Distributions of coordinates used as benchmark input.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public enum Distribution {
+
+	/**
+	 * Coordinates spread uniformly over the Mercator square.
+	 */
+	UNIFORM {
+
+		@Override
+		void fill(Random random, double[] lons, double[] lats)
+		{
+			for (int i = 0; i < lons.length; i++) {
+				lons[i] = -180 + 360 * random.nextDouble();
+				lats[i] = -MAX_LAT + 2 * MAX_LAT * random.nextDouble();
+			}
+		}
+
+	},
+
+	/**
+	 * Coordinates clustered around a city, like the nodes of a typical
+	 * render request.
+	 */
+	CLUSTERED {
+
+		@Override
+		void fill(Random random, double[] lons, double[] lats)
+		{
+			for (int i = 0; i < lons.length; i++) {
+				lons[i] = 13.4 + 0.1 * random.nextGaussian();
+				lats[i] = 52.5 + 0.1 * random.nextGaussian();
+			}
+		}
+
+	},
+
+	/**
+	 * Coordinates close to the northern edge of the Mercator square, where
+	 * the projection is steepest.
+	 */
+	POLAR {
+
+		@Override
+		void fill(Random random, double[] lons, double[] lats)
+		{
+			for (int i = 0; i < lons.length; i++) {
+				lons[i] = -180 + 360 * random.nextDouble();
+				lats[i] = 80 + (MAX_LAT - 80) * random.nextDouble();
+			}
+		}
+
+	};
+
+	private static final double MAX_LAT = 85.0511;
+
+	abstract void fill(Random random, double[] lons, double[] lats);
+
+}
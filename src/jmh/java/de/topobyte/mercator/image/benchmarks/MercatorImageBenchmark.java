@@ -0,0 +1,110 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.topobyte.adt.geo.BBox;
+import de.topobyte.mercator.image.MercatorImage;
+import de.topobyte.mercator.image.ProjectionMode;
+
+/**
+ * Benchmarks for the hot paths of {@link MercatorImage}. Projection
+ * benchmarks report the time per coordinate.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MercatorImageBenchmark
+{
+
+	private static final int N = 4096;
+
+	@Param({ "UNIFORM", "CLUSTERED", "POLAR" })
+	public Distribution distribution;
+
+	@Param({ "EXACT", "APPROXIMATE" })
+	public ProjectionMode mode;
+
+	private BBox bbox = new BBox(13.0, 52.7, 13.8, 52.3);
+	private MercatorImage image;
+
+	private double[] lons = new double[N];
+	private double[] lats = new double[N];
+	private double[] xs = new double[N];
+	private double[] ys = new double[N];
+
+	@Setup
+	public void setup()
+	{
+		image = new MercatorImage(bbox, 1920, 1080);
+		image.setProjectionMode(mode);
+		distribution.fill(new Random(42), lons, lats);
+	}
+
+	@Benchmark
+	public MercatorImage construction()
+	{
+		return new MercatorImage(bbox, 1920, 1080);
+	}
+
+	@Benchmark
+	public BBox visibleBoundingBox()
+	{
+		return image.getVisibleBoundingBox();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public void getXY(Blackhole blackhole)
+	{
+		for (int i = 0; i < N; i++) {
+			blackhole.consume(image.getX(lons[i]));
+			blackhole.consume(image.getY(lats[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public double[] transform()
+	{
+		image.transform(lons, lats, xs, ys, 0, N);
+		return ys;
+	}
+
+}
@@ -0,0 +1,121 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+import de.topobyte.geomath.WGS84;
+
+/**
+ * Table based approximation of the Mercator function for latitudes, used by
+ * {@link ProjectionMode#APPROXIMATE}.
+ *
+ * The latitude range of the Mercator square is divided into
+ * {@value #INTERVALS} intervals of equal size. Within each interval, the
+ * function is approximated by the cubic Hermite polynomial that matches value
+ * and derivative at both ends. The error of this approximation grows towards
+ * the poles, where the function is steepest, and reaches its maximum of about
+ * 1.22e-11 in the outermost intervals. {@link #MAX_ERROR} is a rounded up
+ * version of this value.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class LatitudeTable
+{
+
+	/**
+	 * The maximum latitude that can be displayed on the Mercator square.
+	 */
+	static final double MAX_LAT = 85.0511287798066;
+
+	static final int INTERVALS = 4096;
+
+	/**
+	 * The maximum error of the approximation, relative to the size of the
+	 * Mercator square.
+	 */
+	static final double MAX_ERROR = 1.3e-11;
+
+	/**
+	 * The biggest world size for which the error stays below 1/16 pixel.
+	 */
+	static final double MAX_WORLDSIZE = 1L << 32;
+
+	private static final double STEP = 2 * MAX_LAT / INTERVALS;
+	private static final double INV_STEP = 1 / STEP;
+
+	// 4 polynomial coefficients per interval
+	private static final double[] COEFFICIENTS = createCoefficients();
+
+	private static double[] createCoefficients()
+	{
+		double[] c = new double[INTERVALS * 4];
+		double y0 = WGS84.lat2merc(-MAX_LAT);
+		double m0 = derivative(-MAX_LAT) * STEP;
+		for (int i = 0; i < INTERVALS; i++) {
+			double lat1 = -MAX_LAT + (i + 1) * STEP;
+			double y1 = WGS84.lat2merc(lat1);
+			double m1 = derivative(lat1) * STEP;
+			int k = i * 4;
+			c[k] = y0;
+			c[k + 1] = m0;
+			c[k + 2] = 3 * (y1 - y0) - 2 * m0 - m1;
+			c[k + 3] = 2 * (y0 - y1) + m0 + m1;
+			y0 = y1;
+			m0 = m1;
+		}
+		return c;
+	}
+
+	/*
+	 * The derivative of the Mercator function for latitudes in degrees,
+	 * relative to the size of the Mercator square, whose y axis points
+	 * southwards.
+	 */
+	private static double derivative(double lat)
+	{
+		return -1 / (360 * Math.cos(Math.toRadians(lat)));
+	}
+
+	/**
+	 * Check whether the approximation is accurate to 1/16 pixel for the
+	 * specified world size.
+	 */
+	static boolean isAccurate(double worldsize)
+	{
+		return worldsize <= MAX_WORLDSIZE;
+	}
+
+	/**
+	 * Approximation of {@link WGS84#lat2merc(double)}.
+	 */
+	static double lat2merc(double lat)
+	{
+		double t = (lat + MAX_LAT) * INV_STEP;
+		if (!(t >= 0 && t <= INTERVALS)) {
+			return WGS84.lat2merc(lat);
+		}
+		int i = (int) t;
+		if (i == INTERVALS) {
+			i--;
+		}
+		double u = t - i;
+		double[] c = COEFFICIENTS;
+		int k = i * 4;
+		return c[k] + u * (c[k + 1] + u * (c[k + 2] + u * c[k + 3]));
+	}
+
+}
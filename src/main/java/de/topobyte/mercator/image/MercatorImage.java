@@ -19,7 +19,6 @@ package de.topobyte.mercator.image;
 
 import de.topobyte.adt.geo.BBox;
 import de.topobyte.geomath.WGS84;
-import de.topobyte.jgs.transform.CoordinateTransformer;
 
 /**
  * An image that shows a part of the world using Mercator projection. It is
@@ -30,12 +29,19 @@ import de.topobyte.jgs.transform.CoordinateTransformer;
  * called the visible bounding box. The bounding box used for object creation is
  * called the defining bounding box.
  * 
- * The MercatorImage implements the CoordinateTransformer interface and thereby
+ * The MercatorImage implements the MercatorTransformer interface and thereby
  * transforms lon/lat coordinates to pixel coordinates on the image.
  * 
+ * Images created with the constructors generally have a fractional world size
+ * and offset. The factory methods <code>{@link #forTileRange}</code>,
+ * <code>{@link #forTiles}</code> and <code>{@link #forCenter}</code> create
+ * images that are aligned to the pixel grid of a tile zoom level instead, so
+ * that they can be assembled from existing tiles. For these images, the
+ * defining bounding box equals the visible bounding box.
+ * 
  * @author Sebastian Kuerten (sebastian@topobyte.de)
  */
-public class MercatorImage implements CoordinateTransformer
+public class MercatorImage implements MercatorTransformer
 {
 
 	private int width;
@@ -52,6 +58,10 @@ public class MercatorImage implements CoordinateTransformer
 	// coordniates [0..worldsize]
 	private double sx, sy;
 
+	private ProjectionMode projectionMode = ProjectionMode.EXACT;
+	// whether to use the approximation, depends on mode and worldsize
+	private boolean approximate = false;
+
 	/**
 	 * Create a new MercatorImage with the given size and positional
 	 * information.
@@ -143,6 +153,84 @@ public class MercatorImage implements CoordinateTransformer
 		}
 	}
 
+	private MercatorImage(int width, int height, double worldsize, double sx,
+			double sy)
+	{
+		this.width = width;
+		this.height = height;
+		this.worldsize = worldsize;
+		this.sx = sx;
+		this.sy = sy;
+		mlon1 = WGS84.merc2lon(sx, worldsize);
+		mlon2 = WGS84.merc2lon(sx + width, worldsize);
+		mlat1 = WGS84.merc2lat(sy, worldsize);
+		mlat2 = WGS84.merc2lat(sy + height, worldsize);
+	}
+
+	/**
+	 * Create an image that shows exactly the specified range of tiles.
+	 * 
+	 * @param range
+	 *            the tiles to cover.
+	 * @param tileSize
+	 *            the width and height of tiles in pixels.
+	 * @return an image whose pixels coincide with the pixels of the tiles.
+	 */
+	public static MercatorImage forTileRange(TileRange range, int tileSize)
+	{
+		double worldsize = (double) tileSize * (1L << range.getZoom());
+		return new MercatorImage(range.getWidth() * tileSize,
+				range.getHeight() * tileSize, worldsize,
+				(double) range.getMinX() * tileSize,
+				(double) range.getMinY() * tileSize);
+	}
+
+	/**
+	 * Create an image that shows all tiles on the specified zoom level that
+	 * intersect the bounding box.
+	 * 
+	 * @param bbox
+	 *            the bbox to cover.
+	 * @param zoom
+	 *            the zoom level of the tiles.
+	 * @param tileSize
+	 *            the width and height of tiles in pixels.
+	 * @return an image whose pixels coincide with the pixels of the tiles.
+	 */
+	public static MercatorImage forTiles(BBox bbox, int zoom, int tileSize)
+	{
+		return forTileRange(TileRange.of(bbox, zoom), tileSize);
+	}
+
+	/**
+	 * Create an image of the specified size that is centered on the specified
+	 * coordinate as closely as possible while keeping the offset of the image
+	 * at integer pixel coordinates on the specified zoom level. Tiles of that
+	 * zoom level can hence be copied to the image without resampling.
+	 * 
+	 * @param lon
+	 *            the longitude of the center.
+	 * @param lat
+	 *            the latitude of the center.
+	 * @param zoom
+	 *            the zoom level to align to.
+	 * @param tileSize
+	 *            the width and height of tiles in pixels.
+	 * @param width
+	 *            the width of the image in pixels.
+	 * @param height
+	 *            the height of the image in pixels.
+	 * @return an image aligned to the pixel grid of the zoom level.
+	 */
+	public static MercatorImage forCenter(double lon, double lat, int zoom,
+			int tileSize, int width, int height)
+	{
+		double worldsize = (double) tileSize * (1L << zoom);
+		double sx = Math.floor(WGS84.lon2merc(lon, worldsize) - width / 2.0);
+		double sy = Math.floor(WGS84.lat2merc(lat, worldsize) - height / 2.0);
+		return new MercatorImage(width, height, worldsize, sx, sy);
+	}
+
 	@Override
 	public double getX(double lon)
 	{
@@ -152,9 +240,119 @@ public class MercatorImage implements CoordinateTransformer
 	@Override
 	public double getY(double lat)
 	{
+		if (approximate) {
+			return LatitudeTable.lat2merc(lat) * worldsize - sy;
+		}
 		return WGS84.lat2merc(lat, worldsize) - sy;
 	}
 
+	@Override
+	public void transform(double[] lons, double[] lats, double[] outX,
+			double[] outY, int offset, int length)
+	{
+		transform(lons, lats, offset, outX, outY, offset, length);
+	}
+
+	@Override
+	public void transform(double[] lonlat, double[] xy, int offset, int length)
+	{
+		transform(lonlat, offset, xy, offset, length);
+	}
+
+	@Override
+	public void transform(double[] lons, double[] lats, float[] outX,
+			float[] outY, int offset, int length)
+	{
+		transform(lons, lats, offset, outX, outY, offset, length);
+	}
+
+	@Override
+	public void transform(double[] lonlat, float[] xy, int offset, int length)
+	{
+		transform(lonlat, offset, xy, offset, length);
+	}
+
+	@Override
+	public void transform(double[] lons, double[] lats, int offset,
+			double[] outX, double[] outY, int outOffset, int length)
+	{
+		Projections.transform(lons, lats, offset, outX, outY, outOffset,
+				length, worldsize, sx, worldsize, sy, approximate);
+	}
+
+	@Override
+	public void transform(double[] lonlat, int offset, double[] xy,
+			int outOffset, int length)
+	{
+		Projections.transform(lonlat, offset, xy, outOffset, length,
+				worldsize, sx, worldsize, sy, approximate);
+	}
+
+	@Override
+	public void transform(double[] lons, double[] lats, int offset,
+			float[] outX, float[] outY, int outOffset, int length)
+	{
+		Projections.transform(lons, lats, offset, outX, outY, outOffset,
+				length, worldsize, sx, worldsize, sy, approximate);
+	}
+
+	@Override
+	public void transform(double[] lonlat, int offset, float[] xy,
+			int outOffset, int length)
+	{
+		Projections.transform(lonlat, offset, xy, outOffset, length,
+				worldsize, sx, worldsize, sy, approximate);
+	}
+
+	@Override
+	public double getLon(double x)
+	{
+		return WGS84.merc2lon(x + sx, worldsize);
+	}
+
+	@Override
+	public double getLat(double y)
+	{
+		return WGS84.merc2lat(y + sy, worldsize);
+	}
+
+	@Override
+	public void inverse(double[] xs, double[] ys, double[] outLons,
+			double[] outLats, int offset, int length)
+	{
+		Projections.inverse(xs, ys, outLons, outLats, offset, length,
+				worldsize, sx, worldsize, sy);
+	}
+
+	@Override
+	public void inverse(double[] xy, double[] lonlat, int offset, int length)
+	{
+		Projections.inverse(xy, lonlat, offset, length, worldsize, sx,
+				worldsize, sy);
+	}
+
+	/**
+	 * @return the way latitudes are projected.
+	 */
+	public ProjectionMode getProjectionMode()
+	{
+		return projectionMode;
+	}
+
+	/**
+	 * Set the way latitudes are projected. The default is
+	 * {@link ProjectionMode#EXACT}.
+	 * 
+	 * @param projectionMode
+	 *            the new projection mode.
+	 */
+	public void setProjectionMode(ProjectionMode projectionMode)
+	{
+		this.projectionMode = projectionMode;
+		approximate = projectionMode == ProjectionMode.APPROXIMATE
+				&& LatitudeTable.isAccurate(worldsize);
+	}
+
 	/**
 	 * Get the bounding box that was used to create this image. Note that this
 	 * may be different from the visible bounding box.
@@ -1,23 +1,30 @@
 package de.topobyte.mercator.image;
 
 import de.topobyte.geomath.WGS84;
-import de.topobyte.jgs.transform.CoordinateTransformer;
 
 /**
  * An image tile that shows a part of the world using Mercator projection.
  * 
- * The MercatorTileImage implements the CoordinateTransformer interface and
+ * The MercatorTileImage implements the MercatorTransformer interface and
  * thereby transforms lon/lat coordinates to pixel coordinates on the image.
  * 
+ * An instance can be pointed at a different tile using
+ * <code>{@link #reset(int, int, int)}</code> or the individual setters, which
+ * allows a single instance to be reused for rendering many tiles.
+ * 
  * @author Sebastian Kuerten (sebastian@topobyte.de)
  */
-public class MercatorTileImage implements CoordinateTransformer
+public class MercatorTileImage implements MercatorTransformer
 {
 
 	private int tileZoom;
 	private int tileX;
 	private int tileY;
 
+	// the geographic bounds are computed on first access only. The flag is
+	// volatile so that threads sharing an instance never see the flag set
+	// before the values.
+	private volatile boolean hasBounds = false;
 	private double lon1;
 	private double lat1;
 	private double lon2;
@@ -26,6 +33,9 @@ public class MercatorTileImage implements CoordinateTransformer
 	private int tileWidth = 256;
 	private int tileHeight = 256;
 
+	private ProjectionMode projectionMode = ProjectionMode.EXACT;
+	private TileEdges tileEdges = TileEdges.getDefault();
+
 	/**
 	 * Create a tile defined by zoom, x and y and a default size of 256x256
 	 * pixels.
@@ -42,11 +52,6 @@ public class MercatorTileImage implements CoordinateTransformer
 		this.tileZoom = zoom;
 		this.tileX = x;
 		this.tileY = y;
-
-		lon1 = WGS84.merc2lon(x, 1 << zoom);
-		lat1 = WGS84.merc2lat(y, 1 << zoom);
-		lon2 = WGS84.merc2lon(x + 1, 1 << zoom);
-		lat2 = WGS84.merc2lat(y + 1, 1 << zoom);
 	}
 
 	/**
@@ -72,6 +77,30 @@ public class MercatorTileImage implements CoordinateTransformer
 		this.tileHeight = tileHeight;
 	}
 
+	/**
+	 * Create a tile with a default size of 256x256 pixels from a packed key.
+	 * 
+	 * @param key
+	 *            a key as created by {@link TileKeys#encode(int, int, int)}.
+	 * @return the tile denoted by the key.
+	 */
+	public static MercatorTileImage fromKey(long key)
+	{
+		return new MercatorTileImage(TileKeys.getZoom(key), TileKeys.getX(key),
+				TileKeys.getY(key));
+	}
+
+	/**
+	 * Get a packed key that identifies this tile. See {@link TileKeys} for
+	 * details.
+	 * 
+	 * @return the key of this tile.
+	 */
+	public long getKey()
+	{
+		return TileKeys.encode(tileZoom, tileX, tileY);
+	}
+
 	@Override
 	public String toString()
 	{
@@ -89,11 +118,223 @@ public class MercatorTileImage implements CoordinateTransformer
 	@Override
 	public double getY(double lat)
 	{
-		double absy = WGS84.lat2merc(lat, 1 << tileZoom);
+		double absy;
+		if (isApproximate()) {
+			absy = LatitudeTable.lat2merc(lat) * (1 << tileZoom);
+		} else {
+			absy = WGS84.lat2merc(lat, 1 << tileZoom);
+		}
 		double pos = (absy - tileY) * tileHeight;
 		return pos;
 	}
 
+	@Override
+	public void transform(double[] lons, double[] lats, double[] outX,
+			double[] outY, int offset, int length)
+	{
+		transform(lons, lats, offset, outX, outY, offset, length);
+	}
+
+	@Override
+	public void transform(double[] lonlat, double[] xy, int offset, int length)
+	{
+		transform(lonlat, offset, xy, offset, length);
+	}
+
+	@Override
+	public void transform(double[] lons, double[] lats, float[] outX,
+			float[] outY, int offset, int length)
+	{
+		transform(lons, lats, offset, outX, outY, offset, length);
+	}
+
+	@Override
+	public void transform(double[] lonlat, float[] xy, int offset, int length)
+	{
+		transform(lonlat, offset, xy, offset, length);
+	}
+
+	@Override
+	public void transform(double[] lons, double[] lats, int offset,
+			double[] outX, double[] outY, int outOffset, int length)
+	{
+		double tiles = 1 << tileZoom;
+		Projections.transform(lons, lats, offset, outX, outY, outOffset,
+				length, tiles * tileWidth, (double) tileX * tileWidth,
+				tiles * tileHeight, (double) tileY * tileHeight,
+				isApproximate());
+	}
+
+	@Override
+	public void transform(double[] lonlat, int offset, double[] xy,
+			int outOffset, int length)
+	{
+		double tiles = 1 << tileZoom;
+		Projections.transform(lonlat, offset, xy, outOffset, length,
+				tiles * tileWidth, (double) tileX * tileWidth,
+				tiles * tileHeight, (double) tileY * tileHeight,
+				isApproximate());
+	}
+
+	@Override
+	public void transform(double[] lons, double[] lats, int offset,
+			float[] outX, float[] outY, int outOffset, int length)
+	{
+		double tiles = 1 << tileZoom;
+		Projections.transform(lons, lats, offset, outX, outY, outOffset,
+				length, tiles * tileWidth, (double) tileX * tileWidth,
+				tiles * tileHeight, (double) tileY * tileHeight,
+				isApproximate());
+	}
+
+	@Override
+	public void transform(double[] lonlat, int offset, float[] xy,
+			int outOffset, int length)
+	{
+		double tiles = 1 << tileZoom;
+		Projections.transform(lonlat, offset, xy, outOffset, length,
+				tiles * tileWidth, (double) tileX * tileWidth,
+				tiles * tileHeight, (double) tileY * tileHeight,
+				isApproximate());
+	}
+
+	/**
+	 * Transform coordinates to integer coordinates within a tile of the
+	 * specified extent, as used for vector tiles. The tile spans the range
+	 * [0, extent) in both directions, independent of the tile width and
+	 * height of this instance.
+	 * 
+	 * Coordinates are first scaled to the whole world at this zoom level,
+	 * i.e. to the range [0, 2^zoom * extent), and rounded to the nearest
+	 * integer, with ties rounded up (<code>floor(v + 0.5)</code>). Then the
+	 * position of the tile, <code>x * extent</code> and
+	 * <code>y * extent</code>, is subtracted. Hence a coordinate maps to the
+	 * same world position in all tiles and adjacent tiles agree exactly on
+	 * shared points.
+	 * 
+	 * @param lons
+	 *            the longitudes to transform.
+	 * @param lats
+	 *            the latitudes to transform.
+	 * @param outX
+	 *            the array to store x coordinates in.
+	 * @param outY
+	 *            the array to store y coordinates in.
+	 * @param offset
+	 *            the index of the first coordinate to transform.
+	 * @param length
+	 *            the number of coordinates to transform.
+	 * @param extent
+	 *            the size of the tile in integer units, e.g. 4096.
+	 */
+	public void transform(double[] lons, double[] lats, int[] outX,
+			int[] outY, int offset, int length, int extent)
+	{
+		transform(lons, lats, offset, outX, outY, offset, length, extent);
+	}
+
+	/**
+	 * Like {@link #transform(double[], double[], int[], int[], int, int, int)}
+	 * but stores the results at indices [outOffset, outOffset + length) of the
+	 * output arrays.
+	 * 
+	 * @param lons
+	 *            the longitudes to transform.
+	 * @param lats
+	 *            the latitudes to transform.
+	 * @param offset
+	 *            the index of the first coordinate to transform.
+	 * @param outX
+	 *            the array to store x coordinates in.
+	 * @param outY
+	 *            the array to store y coordinates in.
+	 * @param outOffset
+	 *            the index to store the first result at.
+	 * @param length
+	 *            the number of coordinates to transform.
+	 * @param extent
+	 *            the size of the tile in integer units, e.g. 4096.
+	 */
+	public void transform(double[] lons, double[] lats, int offset,
+			int[] outX, int[] outY, int outOffset, int length, int extent)
+	{
+		double scale = (double) (1 << tileZoom) * extent;
+		Projections.transform(lons, lats, offset, outX, outY, outOffset,
+				length, scale, (long) tileX * extent, (long) tileY * extent,
+				isApproximate(scale));
+	}
+
+	/**
+	 * Transform interleaved coordinates to integer coordinates within a tile
+	 * of the specified extent. See
+	 * {@link #transform(double[], double[], int[], int[], int, int, int)} for
+	 * details.
+	 * 
+	 * @param lonlat
+	 *            the interleaved lon/lat coordinates.
+	 * @param xy
+	 *            the array to store interleaved x/y coordinates in.
+	 * @param offset
+	 *            the index of the first coordinate pair to transform (the
+	 *            array index is <code>2 * offset</code>).
+	 * @param length
+	 *            the number of coordinate pairs to transform.
+	 * @param extent
+	 *            the size of the tile in integer units, e.g. 4096.
+	 */
+	public void transform(double[] lonlat, int[] xy, int offset, int length,
+			int extent)
+	{
+		double scale = (double) (1 << tileZoom) * extent;
+		Projections.transform(lonlat, offset, xy, offset, length, scale,
+				(long) tileX * extent, (long) tileY * extent,
+				isApproximate(scale));
+	}
+
+	private boolean isApproximate()
+	{
+		return isApproximate((double) (1 << tileZoom) * tileHeight);
+	}
+
+	private boolean isApproximate(double worldsize)
+	{
+		return projectionMode == ProjectionMode.APPROXIMATE
+				&& LatitudeTable.isAccurate(worldsize);
+	}
+
+	@Override
+	public double getLon(double x)
+	{
+		double absx = tileX + x / tileWidth;
+		return WGS84.merc2lon(absx, 1 << tileZoom);
+	}
+
+	@Override
+	public double getLat(double y)
+	{
+		double absy = tileY + y / tileHeight;
+		return WGS84.merc2lat(absy, 1 << tileZoom);
+	}
+
+	@Override
+	public void inverse(double[] xs, double[] ys, double[] outLons,
+			double[] outLats, int offset, int length)
+	{
+		double tiles = 1 << tileZoom;
+		Projections.inverse(xs, ys, outLons, outLats, offset, length,
+				tiles * tileWidth, (double) tileX * tileWidth,
+				tiles * tileHeight, (double) tileY * tileHeight);
+	}
+
+	@Override
+	public void inverse(double[] xy, double[] lonlat, int offset, int length)
+	{
+		double tiles = 1 << tileZoom;
+		Projections.inverse(xy, lonlat, offset, length, tiles * tileWidth,
+				(double) tileX * tileWidth, tiles * tileHeight,
+				(double) tileY * tileHeight);
+	}
+
 	/**
 	 * @return the zoom level.
 	 */
@@ -123,6 +364,7 @@ public class MercatorTileImage implements CoordinateTransformer
 	 */
 	public double getLon1()
 	{
+		ensureBounds();
 		return lon1;
 	}
 
@@ -131,6 +373,7 @@ public class MercatorTileImage implements CoordinateTransformer
 	 */
 	public double getLat1()
 	{
+		ensureBounds();
 		return lat1;
 	}
 
@@ -139,6 +382,7 @@ public class MercatorTileImage implements CoordinateTransformer
 	 */
 	public double getLon2()
 	{
+		ensureBounds();
 		return lon2;
 	}
 
@@ -147,9 +391,65 @@ public class MercatorTileImage implements CoordinateTransformer
 	 */
 	public double getLat2()
 	{
+		ensureBounds();
 		return lat2;
 	}
 
+	/**
+	 * @return the way latitudes are projected.
+	 */
+	public ProjectionMode getProjectionMode()
+	{
+		return projectionMode;
+	}
+
+	/**
+	 * Set the way latitudes are projected. The default is
+	 * {@link ProjectionMode#EXACT}.
+	 * 
+	 * @param projectionMode
+	 *            the new projection mode.
+	 */
+	public void setProjectionMode(ProjectionMode projectionMode)
+	{
+		this.projectionMode = projectionMode;
+	}
+
+	/**
+	 * @return the table the geographic bounds are looked up in.
+	 */
+	public TileEdges getTileEdges()
+	{
+		return tileEdges;
+	}
+
+	/**
+	 * Set the table to look up the geographic bounds in. The default is
+	 * {@link TileEdges#getDefault()}. A custom instance with a higher maximum
+	 * zoom level can be shared between tiles to speed up high zoom levels.
+	 * 
+	 * @param tileEdges
+	 *            the table to use.
+	 */
+	public void setTileEdges(TileEdges tileEdges)
+	{
+		this.tileEdges = tileEdges;
+		hasBounds = false;
+	}
+
+	private void ensureBounds()
+	{
+		if (hasBounds) {
+			return;
+		}
+		TileEdges edges = tileEdges;
+		lon1 = edges.getLongitude(tileZoom, tileX);
+		lat1 = edges.getLatitude(tileZoom, tileY);
+		lon2 = edges.getLongitude(tileZoom, tileX + 1);
+		lat2 = edges.getLatitude(tileZoom, tileY + 1);
+		hasBounds = true;
+	}
+
 	/**
 	 * Set zoom level to tileZoom.
 	 * 
@@ -159,6 +459,7 @@ public class MercatorTileImage implements CoordinateTransformer
 	public void setTileZoom(int tileZoom)
 	{
 		this.tileZoom = tileZoom;
+		hasBounds = false;
 	}
 
 	/**
@@ -170,6 +471,7 @@ public class MercatorTileImage implements CoordinateTransformer
 	public void setTileX(int tileX)
 	{
 		this.tileX = tileX;
+		hasBounds = false;
 	}
 
 	/**
@@ -181,6 +483,26 @@ public class MercatorTileImage implements CoordinateTransformer
 	public void setTileY(int tileY)
 	{
 		this.tileY = tileY;
+		hasBounds = false;
+	}
+
+	/**
+	 * Point this instance at a different tile, keeping the tile size,
+	 * projection mode and edge table.
+	 * 
+	 * @param zoom
+	 *            the new zoom level.
+	 * @param x
+	 *            the new x coordinate.
+	 * @param y
+	 *            the new y coordinate.
+	 */
+	public void reset(int zoom, int x, int y)
+	{
+		this.tileZoom = zoom;
+		this.tileX = x;
+		this.tileY = y;
+		hasBounds = false;
 	}
 
 	/**
@@ -0,0 +1,262 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+import de.topobyte.jgs.transform.CoordinateTransformer;
+
+/**
+ * A CoordinateTransformer that maps lon/lat coordinates to pixel coordinates
+ * using Mercator projection and that is able to transform whole arrays of
+ * coordinates at once.
+ *
+ * The bulk methods produce the same results as calling
+ * <code>{@link #getX(double)}</code> and <code>{@link #getY(double)}</code>
+ * for each coordinate, but avoid the per-coordinate overhead of doing so.
+ *
+ * The inverse direction, from pixel coordinates back to lon/lat coordinates,
+ * is available through <code>{@link #getLon(double)}</code>,
+ * <code>{@link #getLat(double)}</code> and the inverse bulk methods.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public interface MercatorTransformer extends CoordinateTransformer
+{
+
+	/**
+	 * Transform the coordinates at indices [offset, offset + length) of the
+	 * input arrays and store the results at the same indices of the output
+	 * arrays. The output arrays may be the same as the input arrays.
+	 *
+	 * @param lons
+	 *            the longitudes to transform.
+	 * @param lats
+	 *            the latitudes to transform.
+	 * @param outX
+	 *            the array to store x coordinates in.
+	 * @param outY
+	 *            the array to store y coordinates in.
+	 * @param offset
+	 *            the index of the first coordinate to transform.
+	 * @param length
+	 *            the number of coordinates to transform.
+	 */
+	public void transform(double[] lons, double[] lats, double[] outX,
+			double[] outY, int offset, int length);
+
+	/**
+	 * Transform interleaved coordinates. The input array contains lon/lat
+	 * pairs, the output array receives x/y pairs at the same positions. The
+	 * output array may be the same as the input array.
+	 *
+	 * @param lonlat
+	 *            the interleaved lon/lat coordinates.
+	 * @param xy
+	 *            the array to store interleaved x/y coordinates in.
+	 * @param offset
+	 *            the index of the first coordinate pair to transform (the
+	 *            array index is <code>2 * offset</code>).
+	 * @param length
+	 *            the number of coordinate pairs to transform.
+	 */
+	public void transform(double[] lonlat, double[] xy, int offset,
+			int length);
+
+	/**
+	 * Like {@link #transform(double[], double[], double[], double[], int, int)}
+	 * but stores the results with float precision. The computation is done
+	 * with double precision.
+	 *
+	 * @param lons
+	 *            the longitudes to transform.
+	 * @param lats
+	 *            the latitudes to transform.
+	 * @param outX
+	 *            the array to store x coordinates in.
+	 * @param outY
+	 *            the array to store y coordinates in.
+	 * @param offset
+	 *            the index of the first coordinate to transform.
+	 * @param length
+	 *            the number of coordinates to transform.
+	 */
+	public void transform(double[] lons, double[] lats, float[] outX,
+			float[] outY, int offset, int length);
+
+	/**
+	 * Like {@link #transform(double[], double[], int, int)} but stores the
+	 * results with float precision. The computation is done with double
+	 * precision.
+	 *
+	 * @param lonlat
+	 *            the interleaved lon/lat coordinates.
+	 * @param xy
+	 *            the array to store interleaved x/y coordinates in.
+	 * @param offset
+	 *            the index of the first coordinate pair to transform (the
+	 *            array index is <code>2 * offset</code>).
+	 * @param length
+	 *            the number of coordinate pairs to transform.
+	 */
+	public void transform(double[] lonlat, float[] xy, int offset, int length);
+
+	/**
+	 * Like {@link #transform(double[], double[], double[], double[], int, int)}
+	 * but stores the results at indices [outOffset, outOffset + length) of the
+	 * output arrays. This allows projecting a part of big input arrays into
+	 * small buffers.
+	 *
+	 * @param lons
+	 *            the longitudes to transform.
+	 * @param lats
+	 *            the latitudes to transform.
+	 * @param offset
+	 *            the index of the first coordinate to transform.
+	 * @param outX
+	 *            the array to store x coordinates in.
+	 * @param outY
+	 *            the array to store y coordinates in.
+	 * @param outOffset
+	 *            the index to store the first result at.
+	 * @param length
+	 *            the number of coordinates to transform.
+	 */
+	public void transform(double[] lons, double[] lats, int offset,
+			double[] outX, double[] outY, int outOffset, int length);
+
+	/**
+	 * Like {@link #transform(double[], double[], int, int)} but stores the
+	 * results starting at the coordinate pair with index outOffset.
+	 *
+	 * @param lonlat
+	 *            the interleaved lon/lat coordinates.
+	 * @param offset
+	 *            the index of the first coordinate pair to transform.
+	 * @param xy
+	 *            the array to store interleaved x/y coordinates in.
+	 * @param outOffset
+	 *            the index of the coordinate pair to store the first result
+	 *            at.
+	 * @param length
+	 *            the number of coordinate pairs to transform.
+	 */
+	public void transform(double[] lonlat, int offset, double[] xy,
+			int outOffset, int length);
+
+	/**
+	 * Like {@link #transform(double[], double[], float[], float[], int, int)}
+	 * but stores the results at indices [outOffset, outOffset + length) of the
+	 * output arrays.
+	 *
+	 * @param lons
+	 *            the longitudes to transform.
+	 * @param lats
+	 *            the latitudes to transform.
+	 * @param offset
+	 *            the index of the first coordinate to transform.
+	 * @param outX
+	 *            the array to store x coordinates in.
+	 * @param outY
+	 *            the array to store y coordinates in.
+	 * @param outOffset
+	 *            the index to store the first result at.
+	 * @param length
+	 *            the number of coordinates to transform.
+	 */
+	public void transform(double[] lons, double[] lats, int offset,
+			float[] outX, float[] outY, int outOffset, int length);
+
+	/**
+	 * Like {@link #transform(double[], float[], int, int)} but stores the
+	 * results starting at the coordinate pair with index outOffset.
+	 *
+	 * @param lonlat
+	 *            the interleaved lon/lat coordinates.
+	 * @param offset
+	 *            the index of the first coordinate pair to transform.
+	 * @param xy
+	 *            the array to store interleaved x/y coordinates in.
+	 * @param outOffset
+	 *            the index of the coordinate pair to store the first result
+	 *            at.
+	 * @param length
+	 *            the number of coordinate pairs to transform.
+	 */
+	public void transform(double[] lonlat, int offset, float[] xy,
+			int outOffset, int length);
+
+	/**
+	 * Get the longitude of the specified x coordinate. This is the inverse of
+	 * <code>{@link #getX(double)}</code>.
+	 *
+	 * @param x
+	 *            a x coordinate in pixel space.
+	 * @return the longitude.
+	 */
+	public double getLon(double x);
+
+	/**
+	 * Get the latitude of the specified y coordinate. This is the inverse of
+	 * <code>{@link #getY(double)}</code>.
+	 *
+	 * @param y
+	 *            a y coordinate in pixel space.
+	 * @return the latitude.
+	 */
+	public double getLat(double y);
+
+	/**
+	 * Transform the pixel coordinates at indices [offset, offset + length) of
+	 * the input arrays back to lon/lat coordinates and store the results at
+	 * the same indices of the output arrays. The output arrays may be the
+	 * same as the input arrays.
+	 *
+	 * @param xs
+	 *            the x coordinates to transform.
+	 * @param ys
+	 *            the y coordinates to transform.
+	 * @param outLons
+	 *            the array to store longitudes in.
+	 * @param outLats
+	 *            the array to store latitudes in.
+	 * @param offset
+	 *            the index of the first coordinate to transform.
+	 * @param length
+	 *            the number of coordinates to transform.
+	 */
+	public void inverse(double[] xs, double[] ys, double[] outLons,
+			double[] outLats, int offset, int length);
+
+	/**
+	 * Transform interleaved pixel coordinates back to lon/lat coordinates. The
+	 * input array contains x/y pairs, the output array receives lon/lat pairs
+	 * at the same positions. The output array may be the same as the input
+	 * array.
+	 *
+	 * @param xy
+	 *            the interleaved x/y coordinates.
+	 * @param lonlat
+	 *            the array to store interleaved lon/lat coordinates in.
+	 * @param offset
+	 *            the index of the first coordinate pair to transform (the
+	 *            array index is <code>2 * offset</code>).
+	 * @param length
+	 *            the number of coordinate pairs to transform.
+	 */
+	public void inverse(double[] xy, double[] lonlat, int offset, int length);
+
+}
@@ -0,0 +1,252 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+import java.awt.geom.Path2D;
+
+/**
+ * Projects sequences of lon/lat coordinates directly into Java2D paths, which
+ * avoids calling getX() and getY() for each coordinate.
+ *
+ * Coordinates are projected in bulk into float buffers that are reused for
+ * all paths created by an instance, so creating a path does not allocate any
+ * intermediate coordinate arrays. Consecutive points that fall into the same
+ * pixel are dropped by default, see {@link #setDropSamePixel(boolean)}.
+ *
+ * Instances are not thread-safe, each thread should use its own instance.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PathProjector
+{
+
+	private MercatorTransformer transformer;
+
+	private boolean dropSamePixel = true;
+
+	private float[] xs = new float[0];
+	private float[] ys = new float[0];
+	private float[] xy = new float[0];
+
+	/**
+	 * Create a projector that uses the specified transformer.
+	 *
+	 * @param transformer
+	 *            the transformer to project coordinates with.
+	 */
+	public PathProjector(MercatorTransformer transformer)
+	{
+		this.transformer = transformer;
+	}
+
+	/**
+	 * @return the transformer used by this projector.
+	 */
+	public MercatorTransformer getTransformer()
+	{
+		return transformer;
+	}
+
+	/**
+	 * Create a path from the coordinates at indices [offset, offset + length)
+	 * of the specified arrays.
+	 *
+	 * @param lons
+	 *            the longitudes.
+	 * @param lats
+	 *            the latitudes.
+	 * @param offset
+	 *            the index of the first coordinate.
+	 * @param length
+	 *            the number of coordinates.
+	 * @param close
+	 *            whether to close the path.
+	 * @return the projected path.
+	 */
+	public Path2D.Float createPath(double[] lons, double[] lats, int offset,
+			int length, boolean close)
+	{
+		Path2D.Float path = new Path2D.Float(Path2D.WIND_EVEN_ODD, length);
+		append(path, lons, lats, offset, length, close);
+		return path;
+	}
+
+	/**
+	 * Create a path from interleaved lon/lat coordinates.
+	 *
+	 * @param lonlat
+	 *            the interleaved coordinates.
+	 * @param offset
+	 *            the index of the first coordinate pair.
+	 * @param length
+	 *            the number of coordinate pairs.
+	 * @param close
+	 *            whether to close the path.
+	 * @return the projected path.
+	 */
+	public Path2D.Float createPath(double[] lonlat, int offset, int length,
+			boolean close)
+	{
+		Path2D.Float path = new Path2D.Float(Path2D.WIND_EVEN_ODD, length);
+		append(path, lonlat, offset, length, close);
+		return path;
+	}
+
+	/**
+	 * Append the coordinates at indices [offset, offset + length) of the
+	 * specified arrays to a path as a new subpath.
+	 *
+	 * @param path
+	 *            the path to append to.
+	 * @param lons
+	 *            the longitudes.
+	 * @param lats
+	 *            the latitudes.
+	 * @param offset
+	 *            the index of the first coordinate.
+	 * @param length
+	 *            the number of coordinates.
+	 * @param close
+	 *            whether to close the subpath.
+	 * @return the number of points added to the path.
+	 */
+	public int append(Path2D path, double[] lons, double[] lats, int offset,
+			int length, boolean close)
+	{
+		if (length == 0) {
+			return 0;
+		}
+		ensureCapacity(length);
+		transformer.transform(lons, lats, offset, xs, ys, 0, length);
+		return appendProjected(path, xs, ys, 0, 0, 1, length, close);
+	}
+
+	/**
+	 * Append interleaved lon/lat coordinates to a path as a new subpath.
+	 *
+	 * @param path
+	 *            the path to append to.
+	 * @param lonlat
+	 *            the interleaved coordinates.
+	 * @param offset
+	 *            the index of the first coordinate pair.
+	 * @param length
+	 *            the number of coordinate pairs.
+	 * @param close
+	 *            whether to close the subpath.
+	 * @return the number of points added to the path.
+	 */
+	public int append(Path2D path, double[] lonlat, int offset, int length,
+			boolean close)
+	{
+		if (length == 0) {
+			return 0;
+		}
+		ensureInterleavedCapacity(length * 2);
+		transformer.transform(lonlat, offset, xy, 0, length);
+		return appendProjected(path, xy, xy, 0, 1, 2, length, close);
+	}
+
+	private int appendProjected(Path2D path, float[] xs, float[] ys, int ix,
+			int iy, int stride, int length, boolean close)
+	{
+		float x = xs[ix];
+		float y = ys[iy];
+		path.moveTo(x, y);
+		int count = 1;
+		if (!dropSamePixel) {
+			for (int i = 1; i < length; i++) {
+				ix += stride;
+				iy += stride;
+				path.lineTo(xs[ix], ys[iy]);
+			}
+			count = length;
+		} else {
+			int px = (int) Math.floor(x);
+			int py = (int) Math.floor(y);
+			int last = length - 1;
+			for (int i = 1; i < length; i++) {
+				ix += stride;
+				iy += stride;
+				x = xs[ix];
+				y = ys[iy];
+				int qx = (int) Math.floor(x);
+				int qy = (int) Math.floor(y);
+				if (qx == px && qy == py) {
+					// keep the end point of open paths so that their extent
+					// does not change, closing the path returns to the start
+					// point anyway
+					if (i != last || close) {
+						continue;
+					}
+				}
+				path.lineTo(x, y);
+				count++;
+				px = qx;
+				py = qy;
+			}
+		}
+		if (close) {
+			path.closePath();
+		}
+		return count;
+	}
+
+	/**
+	 * @return whether consecutive points in the same pixel are dropped.
+	 */
+	public boolean isDropSamePixel()
+	{
+		return dropSamePixel;
+	}
+
+	/**
+	 * Set whether consecutive points that fall into the same pixel are
+	 * dropped, i.e. only the first of a number of consecutive points with the
+	 * same integer part of their coordinates is added to a path. This reduces
+	 * the number of segments the rasterizer has to process for detailed
+	 * geometries without changing the rendered result noticeably. The last
+	 * point of open paths is always kept. Enabled by default.
+	 *
+	 * @param dropSamePixel
+	 *            whether to drop points.
+	 */
+	public void setDropSamePixel(boolean dropSamePixel)
+	{
+		this.dropSamePixel = dropSamePixel;
+	}
+
+	private void ensureCapacity(int capacity)
+	{
+		if (xs.length >= capacity) {
+			return;
+		}
+		int size = Math.max(capacity, xs.length * 2);
+		xs = new float[size];
+		ys = new float[size];
+	}
+
+	private void ensureInterleavedCapacity(int capacity)
+	{
+		if (xy.length >= capacity) {
+			return;
+		}
+		xy = new float[Math.max(capacity, xy.length * 2)];
+	}
+
+}
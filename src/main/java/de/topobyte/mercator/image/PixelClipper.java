@@ -0,0 +1,650 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+/**
+ * Clips projected geometries to the area of an image, extended by a margin.
+ *
+ * Clipping happens in pixel space, i.e. on coordinates that have been
+ * projected using the image's transformer. The margin should be chosen big
+ * enough that strokes along the clip border do not become visible in the
+ * image, e.g. half the widest line width used for rendering.
+ *
+ * Polygons are clipped using the Sutherland-Hodgman algorithm, which yields a
+ * single ring. Polylines are clipped using the Cohen-Sutherland algorithm,
+ * which may yield multiple parts. Geometries that lie completely inside or
+ * completely outside of the clip area are detected upfront and handled
+ * without any clipping work.
+ *
+ * Clippers created for a transformer, for example using
+ * <code>{@link #forImage(MercatorImage, double)}</code> or
+ * <code>{@link #forTile(MercatorTileImage, double)}</code>, can also clip
+ * lon/lat geometries with <code>{@link #projectAndClipPolygon}</code> and
+ * <code>{@link #projectAndClipPolyline}</code>. These reject geometries whose
+ * lon/lat bounding box does not intersect the clip area before projecting any
+ * coordinate, so that the work per image or tile scales with the visible
+ * geometries rather than with all geometries passed in.
+ *
+ * The results of the last operation are stored in buffers that are reused
+ * across invocations and can be accessed using <code>{@link #getX()}</code>,
+ * <code>{@link #getY()}</code> and <code>{@link #getPartStarts()}</code>.
+ * Instances are not thread-safe, each thread should use its own instance.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PixelClipper
+{
+
+	private static final int INSIDE = 0;
+	private static final int LEFT = 1;
+	private static final int RIGHT = 2;
+	private static final int TOP = 4;
+	private static final int BOTTOM = 8;
+
+	private static final int INSIDE_AREA = 0;
+	private static final int OUTSIDE_AREA = 1;
+	private static final int CROSSING_AREA = 2;
+
+	private double minX;
+	private double minY;
+	private double maxX;
+	private double maxY;
+
+	private double[] xs = new double[16];
+	private double[] ys = new double[16];
+	private int size = 0;
+
+	// temporary buffers for Sutherland-Hodgman
+	private double[] tmpX = new double[16];
+	private double[] tmpY = new double[16];
+
+	private int[] partStarts = new int[8];
+	private int numParts = 0;
+
+	// the clip area in geographic coordinates, if a transformer is known
+	private MercatorTransformer transformer = null;
+	private double minLon;
+	private double maxLon;
+	private double minLat;
+	private double maxLat;
+
+	private double[] projX = new double[0];
+	private double[] projY = new double[0];
+
+	/**
+	 * Create a clipper for an image of the specified size.
+	 *
+	 * @param width
+	 *            the width of the image in pixels.
+	 * @param height
+	 *            the height of the image in pixels.
+	 * @param margin
+	 *            the number of pixels to extend the clip area by on each side.
+	 */
+	public PixelClipper(double width, double height, double margin)
+	{
+		this(-margin, -margin, width + margin, height + margin);
+	}
+
+	/**
+	 * Create a clipper for an arbitrary rectangle in pixel space.
+	 *
+	 * @param minX
+	 *            the left edge of the clip area.
+	 * @param minY
+	 *            the top edge of the clip area.
+	 * @param maxX
+	 *            the right edge of the clip area.
+	 * @param maxY
+	 *            the bottom edge of the clip area.
+	 */
+	public PixelClipper(double minX, double minY, double maxX, double maxY)
+	{
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	/**
+	 * Create a clipper for an arbitrary rectangle in the pixel space of a
+	 * transformer, which is able to clip lon/lat geometries, too.
+	 *
+	 * @param transformer
+	 *            the transformer to project coordinates with.
+	 * @param minX
+	 *            the left edge of the clip area.
+	 * @param minY
+	 *            the top edge of the clip area.
+	 * @param maxX
+	 *            the right edge of the clip area.
+	 * @param maxY
+	 *            the bottom edge of the clip area.
+	 */
+	public PixelClipper(MercatorTransformer transformer, double minX,
+			double minY, double maxX, double maxY)
+	{
+		this(minX, minY, maxX, maxY);
+		this.transformer = transformer;
+		// the projection is monotonic in both directions, so the corners
+		// define the geographic clip area
+		minLon = transformer.getLon(minX);
+		maxLon = transformer.getLon(maxX);
+		maxLat = transformer.getLat(minY);
+		minLat = transformer.getLat(maxY);
+	}
+
+	/**
+	 * Create a clipper for the area of an image.
+	 *
+	 * @param image
+	 *            the image.
+	 * @param margin
+	 *            the number of pixels to extend the clip area by on each side.
+	 * @return a new clipper.
+	 */
+	public static PixelClipper forImage(MercatorImage image, double margin)
+	{
+		return new PixelClipper(image, -margin, -margin,
+				image.getWidth() + margin, image.getHeight() + margin);
+	}
+
+	/**
+	 * Create a clipper for the area of a tile.
+	 *
+	 * @param tile
+	 *            the tile.
+	 * @param margin
+	 *            the number of pixels to extend the clip area by on each side.
+	 * @return a new clipper.
+	 */
+	public static PixelClipper forTile(MercatorTileImage tile, double margin)
+	{
+		return new PixelClipper(tile, -margin, -margin,
+				tile.getTileWidth() + margin, tile.getTileHeight() + margin);
+	}
+
+	/**
+	 * Clip a polygon ring. The ring is given by the points at indices [offset,
+	 * offset + length) and is implicitly closed, i.e. the first point should
+	 * not be repeated at the end. The clipped ring is available through
+	 * <code>{@link #getX()}</code> and <code>{@link #getY()}</code> afterwards.
+	 *
+	 * @param xs
+	 *            the x coordinates.
+	 * @param ys
+	 *            the y coordinates.
+	 * @param offset
+	 *            the index of the first point.
+	 * @param length
+	 *            the number of points.
+	 * @return the number of points of the clipped ring, 0 if the polygon is
+	 *         outside of the clip area.
+	 */
+	public int clipPolygon(double[] xs, double[] ys, int offset, int length)
+	{
+		size = 0;
+		numParts = 0;
+		int location = locate(xs, ys, offset, length);
+		if (location == OUTSIDE_AREA) {
+			return 0;
+		}
+		if (location == INSIDE_AREA) {
+			copy(xs, ys, offset, length);
+		} else {
+			ensureCapacity(length);
+			System.arraycopy(xs, offset, this.xs, 0, length);
+			System.arraycopy(ys, offset, this.ys, 0, length);
+			size = length;
+			clipEdge(LEFT);
+			clipEdge(RIGHT);
+			clipEdge(TOP);
+			clipEdge(BOTTOM);
+		}
+		if (size > 0) {
+			addPart(0);
+		}
+		return size;
+	}
+
+	/**
+	 * Clip a polyline, given by the points at indices [offset, offset +
+	 * length). The result may consist of multiple parts, whose start indices
+	 * are available through <code>{@link #getPartStarts()}</code> afterwards.
+	 *
+	 * @param xs
+	 *            the x coordinates.
+	 * @param ys
+	 *            the y coordinates.
+	 * @param offset
+	 *            the index of the first point.
+	 * @param length
+	 *            the number of points.
+	 * @return the number of parts, 0 if the polyline is outside of the clip
+	 *         area.
+	 */
+	public int clipPolyline(double[] xs, double[] ys, int offset, int length)
+	{
+		size = 0;
+		numParts = 0;
+		int location = locate(xs, ys, offset, length);
+		if (location == OUTSIDE_AREA) {
+			return 0;
+		}
+		if (location == INSIDE_AREA) {
+			copy(xs, ys, offset, length);
+			addPart(0);
+			return numParts;
+		}
+
+		int end = offset + length;
+		boolean open = false;
+		for (int i = offset + 1; i < end; i++) {
+			double x1 = xs[i - 1];
+			double y1 = ys[i - 1];
+			double x2 = xs[i];
+			double y2 = ys[i];
+			int code1 = outcode(x1, y1);
+			int code2 = outcode(x2, y2);
+			boolean clipped = false;
+			while (true) {
+				if ((code1 | code2) == 0) {
+					break;
+				}
+				if ((code1 & code2) != 0) {
+					clipped = true;
+					break;
+				}
+				// move the point outside of the area onto the border
+				int code = code1 != 0 ? code1 : code2;
+				double x, y;
+				if ((code & BOTTOM) != 0) {
+					x = x1 + (x2 - x1) * (maxY - y1) / (y2 - y1);
+					y = maxY;
+				} else if ((code & TOP) != 0) {
+					x = x1 + (x2 - x1) * (minY - y1) / (y2 - y1);
+					y = minY;
+				} else if ((code & RIGHT) != 0) {
+					y = y1 + (y2 - y1) * (maxX - x1) / (x2 - x1);
+					x = maxX;
+				} else {
+					y = y1 + (y2 - y1) * (minX - x1) / (x2 - x1);
+					x = minX;
+				}
+				if (code == code1) {
+					x1 = x;
+					y1 = y;
+					code1 = outcode(x1, y1);
+					open = false;
+				} else {
+					x2 = x;
+					y2 = y;
+					code2 = outcode(x2, y2);
+				}
+			}
+			if (clipped) {
+				open = false;
+				continue;
+			}
+			if (!open) {
+				addPart(size);
+				add(x1, y1);
+				open = true;
+			}
+			add(x2, y2);
+			// if the end point has been moved, the next segment starts
+			// outside of the area
+			if (x2 != xs[i] || y2 != ys[i]) {
+				open = false;
+			}
+		}
+		return numParts;
+	}
+
+	/**
+	 * Project and clip a polygon ring given in lon/lat coordinates, see
+	 * <code>{@link #clipPolygon(double[], double[], int, int)}</code>. If the
+	 * bounding box of the ring is outside of the clip area, no coordinates are
+	 * projected at all.
+	 *
+	 * @param lons
+	 *            the longitudes.
+	 * @param lats
+	 *            the latitudes.
+	 * @param offset
+	 *            the index of the first point.
+	 * @param length
+	 *            the number of points.
+	 * @return the number of points of the clipped ring, 0 if the polygon is
+	 *         outside of the clip area.
+	 * @throws IllegalStateException
+	 *             if this clipper has been created without a transformer.
+	 */
+	public int projectAndClipPolygon(double[] lons, double[] lats, int offset,
+			int length)
+	{
+		if (!project(lons, lats, offset, length)) {
+			return 0;
+		}
+		return clipPolygon(projX, projY, 0, length);
+	}
+
+	/**
+	 * Project and clip a polyline given in lon/lat coordinates, see
+	 * <code>{@link #clipPolyline(double[], double[], int, int)}</code>. If the
+	 * bounding box of the polyline is outside of the clip area, no coordinates
+	 * are projected at all.
+	 *
+	 * @param lons
+	 *            the longitudes.
+	 * @param lats
+	 *            the latitudes.
+	 * @param offset
+	 *            the index of the first point.
+	 * @param length
+	 *            the number of points.
+	 * @return the number of parts, 0 if the polyline is outside of the clip
+	 *         area.
+	 * @throws IllegalStateException
+	 *             if this clipper has been created without a transformer.
+	 */
+	public int projectAndClipPolyline(double[] lons, double[] lats,
+			int offset, int length)
+	{
+		if (!project(lons, lats, offset, length)) {
+			return 0;
+		}
+		return clipPolyline(projX, projY, 0, length);
+	}
+
+	/*
+	 * Project the coordinates into the projection buffers, unless their
+	 * bounding box is outside of the clip area, which is indicated by
+	 * returning false.
+	 */
+	private boolean project(double[] lons, double[] lats, int offset,
+			int length)
+	{
+		if (transformer == null) {
+			throw new IllegalStateException("no transformer");
+		}
+		size = 0;
+		numParts = 0;
+		if (length == 0) {
+			return false;
+		}
+		double lon1 = lons[offset], lon2 = lon1;
+		double lat1 = lats[offset], lat2 = lat1;
+		int end = offset + length;
+		for (int i = offset + 1; i < end; i++) {
+			double lon = lons[i];
+			double lat = lats[i];
+			if (lon < lon1) {
+				lon1 = lon;
+			} else if (lon > lon2) {
+				lon2 = lon;
+			}
+			if (lat < lat1) {
+				lat1 = lat;
+			} else if (lat > lat2) {
+				lat2 = lat;
+			}
+		}
+		if (lon2 < minLon || lon1 > maxLon || lat2 < minLat
+				|| lat1 > maxLat) {
+			return false;
+		}
+		if (projX.length < length) {
+			int capacity = Math.max(length, projX.length * 2);
+			projX = new double[capacity];
+			projY = new double[capacity];
+		}
+		transformer.transform(lons, lats, offset, projX, projY, 0, length);
+		return true;
+	}
+
+	/**
+	 * Get the x coordinates of the result of the last operation. The array is
+	 * reused by subsequent operations and may be longer than the result.
+	 *
+	 * @return the x coordinates.
+	 */
+	public double[] getX()
+	{
+		return xs;
+	}
+
+	/**
+	 * Get the y coordinates of the result of the last operation. The array is
+	 * reused by subsequent operations and may be longer than the result.
+	 *
+	 * @return the y coordinates.
+	 */
+	public double[] getY()
+	{
+		return ys;
+	}
+
+	/**
+	 * @return the total number of points in the result of the last operation.
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * @return the number of parts in the result of the last operation.
+	 */
+	public int getNumParts()
+	{
+		return numParts;
+	}
+
+	/**
+	 * Get the start indices of the parts of the result of the last operation.
+	 * Part i spans the points from index <code>getPartStarts()[i]</code> up to
+	 * the start of the next part, or {@link #getSize()} for the last part. The
+	 * array is reused by subsequent operations and may be longer than the
+	 * number of parts.
+	 *
+	 * @return the start indices.
+	 */
+	public int[] getPartStarts()
+	{
+		return partStarts;
+	}
+
+	private int locate(double[] xs, double[] ys, int offset, int length)
+	{
+		if (length == 0) {
+			return OUTSIDE_AREA;
+		}
+		double x1 = xs[offset], x2 = x1;
+		double y1 = ys[offset], y2 = y1;
+		int end = offset + length;
+		for (int i = offset + 1; i < end; i++) {
+			double x = xs[i];
+			double y = ys[i];
+			if (x < x1) {
+				x1 = x;
+			} else if (x > x2) {
+				x2 = x;
+			}
+			if (y < y1) {
+				y1 = y;
+			} else if (y > y2) {
+				y2 = y;
+			}
+		}
+		if (x2 < minX || x1 > maxX || y2 < minY || y1 > maxY) {
+			return OUTSIDE_AREA;
+		}
+		if (x1 >= minX && x2 <= maxX && y1 >= minY && y2 <= maxY) {
+			return INSIDE_AREA;
+		}
+		return CROSSING_AREA;
+	}
+
+	private int outcode(double x, double y)
+	{
+		int code = INSIDE;
+		if (x < minX) {
+			code |= LEFT;
+		} else if (x > maxX) {
+			code |= RIGHT;
+		}
+		if (y < minY) {
+			code |= TOP;
+		} else if (y > maxY) {
+			code |= BOTTOM;
+		}
+		return code;
+	}
+
+	/*
+	 * One pass of Sutherland-Hodgman: clip the current ring in the output
+	 * buffers against one edge of the clip area.
+	 */
+	private void clipEdge(int edge)
+	{
+		int n = size;
+		if (n == 0) {
+			return;
+		}
+		double[] inX = xs;
+		double[] inY = ys;
+		xs = tmpX;
+		ys = tmpY;
+		tmpX = inX;
+		tmpY = inY;
+		size = 0;
+
+		double px = inX[n - 1];
+		double py = inY[n - 1];
+		boolean pInside = inside(edge, px, py);
+		for (int i = 0; i < n; i++) {
+			double x = inX[i];
+			double y = inY[i];
+			boolean inside = inside(edge, x, y);
+			if (inside != pInside) {
+				intersect(edge, px, py, x, y);
+			}
+			if (inside) {
+				addVertex(x, y);
+			}
+			px = x;
+			py = y;
+			pInside = inside;
+		}
+	}
+
+	private boolean inside(int edge, double x, double y)
+	{
+		switch (edge) {
+		default:
+		case LEFT:
+			return x >= minX;
+		case RIGHT:
+			return x <= maxX;
+		case TOP:
+			return y >= minY;
+		case BOTTOM:
+			return y <= maxY;
+		}
+	}
+
+	private void intersect(int edge, double x1, double y1, double x2,
+			double y2)
+	{
+		switch (edge) {
+		default:
+		case LEFT:
+			addVertex(minX, y1 + (y2 - y1) * (minX - x1) / (x2 - x1));
+			break;
+		case RIGHT:
+			addVertex(maxX, y1 + (y2 - y1) * (maxX - x1) / (x2 - x1));
+			break;
+		case TOP:
+			addVertex(x1 + (x2 - x1) * (minY - y1) / (y2 - y1), minY);
+			break;
+		case BOTTOM:
+			addVertex(x1 + (x2 - x1) * (maxY - y1) / (y2 - y1), maxY);
+			break;
+		}
+	}
+
+	private void copy(double[] xs, double[] ys, int offset, int length)
+	{
+		ensureCapacity(length);
+		System.arraycopy(xs, offset, this.xs, 0, length);
+		System.arraycopy(ys, offset, this.ys, 0, length);
+		size = length;
+	}
+
+	private void add(double x, double y)
+	{
+		if (size == xs.length) {
+			ensureCapacity(size * 2);
+		}
+		xs[size] = x;
+		ys[size] = y;
+		size++;
+	}
+
+	/*
+	 * Add a vertex of a clipped ring unless it is equal to the previous one,
+	 * which happens when the ring passes a corner of the clip area.
+	 */
+	private void addVertex(double x, double y)
+	{
+		if (size > 0 && xs[size - 1] == x && ys[size - 1] == y) {
+			return;
+		}
+		add(x, y);
+	}
+
+	private void addPart(int start)
+	{
+		if (numParts == partStarts.length) {
+			int[] starts = new int[numParts * 2];
+			System.arraycopy(partStarts, 0, starts, 0, numParts);
+			partStarts = starts;
+		}
+		partStarts[numParts++] = start;
+	}
+
+	private void ensureCapacity(int capacity)
+	{
+		if (xs.length >= capacity) {
+			return;
+		}
+		double[] x = new double[capacity];
+		double[] y = new double[capacity];
+		System.arraycopy(xs, 0, x, 0, size);
+		System.arraycopy(ys, 0, y, 0, size);
+		xs = x;
+		ys = y;
+		// the temporary buffers need to be able to hold the same data
+		if (tmpX.length < capacity) {
+			tmpX = new double[capacity];
+			tmpY = new double[capacity];
+		}
+	}
+
+}
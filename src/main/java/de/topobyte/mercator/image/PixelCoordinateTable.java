@@ -0,0 +1,142 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+/**
+ * A table of the geographic coordinates of the pixels of an image.
+ *
+ * With Mercator projection, all pixels of a row share the same latitude and
+ * all pixels of a column share the same longitude. This table stores the
+ * latitude of each row and the longitude of each column, so that the
+ * coordinates of all pixels of an image are available after w + h inverse
+ * projections instead of w * h. This is useful when reprojecting rasters into
+ * an image, where the source coordinates of each pixel are needed.
+ *
+ * The coordinates stored are those of the pixel centers, i.e. the value for
+ * row y corresponds to the pixel coordinate y + 0.5.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PixelCoordinateTable
+{
+
+	private double[] latitudeOfRow;
+	private double[] longitudeOfColumn;
+
+	/**
+	 * Create a table for the pixels of the specified image.
+	 *
+	 * @param image
+	 *            the image to create the table for.
+	 */
+	public PixelCoordinateTable(MercatorImage image)
+	{
+		this(image, image.getWidth(), image.getHeight());
+	}
+
+	/**
+	 * Create a table for the pixels of an image of the specified size that
+	 * uses the specified transformer.
+	 *
+	 * @param transformer
+	 *            the transformer that maps coordinates to the image.
+	 * @param width
+	 *            the width of the image in pixels.
+	 * @param height
+	 *            the height of the image in pixels.
+	 */
+	public PixelCoordinateTable(MercatorTransformer transformer, int width,
+			int height)
+	{
+		latitudeOfRow = new double[height];
+		longitudeOfColumn = new double[width];
+
+		// The bulk inverse transformation always computes both axes, so
+		// each axis is handled on its own to do exactly one inverse
+		// projection per column and row.
+		for (int x = 0; x < width; x++) {
+			longitudeOfColumn[x] = transformer.getLon(x + 0.5);
+		}
+		for (int y = 0; y < height; y++) {
+			latitudeOfRow[y] = transformer.getLat(y + 0.5);
+		}
+	}
+
+	/**
+	 * @return the width of the image in pixels.
+	 */
+	public int getWidth()
+	{
+		return longitudeOfColumn.length;
+	}
+
+	/**
+	 * @return the height of the image in pixels.
+	 */
+	public int getHeight()
+	{
+		return latitudeOfRow.length;
+	}
+
+	/**
+	 * Get the latitude of the centers of the pixels in the specified row.
+	 *
+	 * @param y
+	 *            the row.
+	 * @return the latitude.
+	 */
+	public double getLatitudeOfRow(int y)
+	{
+		return latitudeOfRow[y];
+	}
+
+	/**
+	 * Get the longitude of the centers of the pixels in the specified column.
+	 *
+	 * @param x
+	 *            the column.
+	 * @return the longitude.
+	 */
+	public double getLongitudeOfColumn(int x)
+	{
+		return longitudeOfColumn[x];
+	}
+
+	/**
+	 * Get the latitudes of all rows. The returned array is the internal
+	 * storage of this table and must not be modified.
+	 *
+	 * @return an array of length height.
+	 */
+	public double[] getLatitudeOfRow()
+	{
+		return latitudeOfRow;
+	}
+
+	/**
+	 * Get the longitudes of all columns. The returned array is the internal
+	 * storage of this table and must not be modified.
+	 *
+	 * @return an array of length width.
+	 */
+	public double[] getLongitudeOfColumn()
+	{
+		return longitudeOfColumn;
+	}
+
+}
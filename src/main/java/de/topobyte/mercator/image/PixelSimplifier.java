@@ -0,0 +1,260 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+/**
+ * Projects lon/lat coordinate sequences to pixel space and simplifies them
+ * with a tolerance expressed in pixels.
+ *
+ * Since simplification happens after projection, the tolerance automatically
+ * adapts to the scale of the transformer: at low zoom levels, where a lot of
+ * vertices end up in the same pixel, most of them are removed. The
+ * simplification runs in two steps: first, points closer than the tolerance
+ * to the previous retained point are dropped, which is cheap and removes most
+ * points of dense geometries at small scales. The remaining points are
+ * simplified using the Douglas-Peucker algorithm. The first and last point of
+ * a sequence are always retained. Because of the first step, the distance of
+ * removed points from the simplified line may exceed the tolerance slightly,
+ * but never by more than the tolerance itself.
+ *
+ * All work is done on primitive arrays that are reused across invocations.
+ * Instances are not thread-safe, each thread should use its own instance.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class PixelSimplifier
+{
+
+	private MercatorTransformer transformer;
+	private double tolerance;
+
+	private double[] xs = new double[0];
+	private double[] ys = new double[0];
+	private boolean[] keep = new boolean[0];
+	private int[] stack = new int[0];
+
+	/**
+	 * Create a simplifier.
+	 *
+	 * @param transformer
+	 *            the transformer to project coordinates with.
+	 * @param tolerance
+	 *            the maximum distance in pixels of removed points from the
+	 *            simplified line.
+	 */
+	public PixelSimplifier(MercatorTransformer transformer, double tolerance)
+	{
+		this.transformer = transformer;
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * @return the transformer used by this simplifier.
+	 */
+	public MercatorTransformer getTransformer()
+	{
+		return transformer;
+	}
+
+	/**
+	 * @return the tolerance in pixels.
+	 */
+	public double getTolerance()
+	{
+		return tolerance;
+	}
+
+	/**
+	 * Set the tolerance.
+	 *
+	 * @param tolerance
+	 *            the maximum distance in pixels of removed points from the
+	 *            simplified line.
+	 */
+	public void setTolerance(double tolerance)
+	{
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Project and simplify the coordinates at indices [offset, offset +
+	 * length) of the specified arrays. The retained points are stored in pixel
+	 * coordinates at the beginning of the output arrays, which need to be able
+	 * to hold up to length values.
+	 *
+	 * @param lons
+	 *            the longitudes.
+	 * @param lats
+	 *            the latitudes.
+	 * @param offset
+	 *            the index of the first coordinate.
+	 * @param length
+	 *            the number of coordinates.
+	 * @param outX
+	 *            the array to store x coordinates of retained points in.
+	 * @param outY
+	 *            the array to store y coordinates of retained points in.
+	 * @return the number of retained points.
+	 */
+	public int simplify(double[] lons, double[] lats, int offset, int length,
+			double[] outX, double[] outY)
+	{
+		if (length == 0) {
+			return 0;
+		}
+		ensureCapacity(length);
+		transformer.transform(lons, lats, offset, xs, ys, 0, length);
+
+		int n = dropClosePoints(length);
+		if (n <= 2) {
+			System.arraycopy(xs, 0, outX, 0, n);
+			System.arraycopy(ys, 0, outY, 0, n);
+			return n;
+		}
+
+		douglasPeucker(n);
+
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			if (keep[i]) {
+				outX[count] = xs[i];
+				outY[count] = ys[i];
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Drop points closer than the tolerance to the previously retained point
+	 * and move the retained points to the beginning of the buffers, in
+	 * place.
+	 */
+	private int dropClosePoints(int length)
+	{
+		double t2 = tolerance * tolerance;
+		int last = length - 1;
+		double px = xs[0];
+		double py = ys[0];
+		int n = 1;
+		for (int i = 1; i < last; i++) {
+			double x = xs[i];
+			double y = ys[i];
+			double dx = x - px;
+			double dy = y - py;
+			if (dx * dx + dy * dy < t2) {
+				continue;
+			}
+			xs[n] = x;
+			ys[n] = y;
+			n++;
+			px = x;
+			py = y;
+		}
+		if (length > 1) {
+			xs[n] = xs[last];
+			ys[n] = ys[last];
+			n++;
+		}
+		return n;
+	}
+
+	private void douglasPeucker(int n)
+	{
+		double t2 = tolerance * tolerance;
+		for (int i = 0; i < n; i++) {
+			keep[i] = false;
+		}
+		keep[0] = true;
+		keep[n - 1] = true;
+
+		int top = 0;
+		stack[top++] = 0;
+		stack[top++] = n - 1;
+		while (top > 0) {
+			int end = stack[--top];
+			int start = stack[--top];
+
+			double ax = xs[start];
+			double ay = ys[start];
+			double dx = xs[end] - ax;
+			double dy = ys[end] - ay;
+			double d2 = dx * dx + dy * dy;
+
+			int best = -1;
+			double max = t2;
+			for (int i = start + 1; i < end; i++) {
+				double distance = distance2(xs[i] - ax, ys[i] - ay, dx, dy,
+						d2);
+				if (distance > max) {
+					max = distance;
+					best = i;
+				}
+			}
+			if (best < 0) {
+				continue;
+			}
+			keep[best] = true;
+			if (best - start > 1) {
+				stack[top++] = start;
+				stack[top++] = best;
+			}
+			if (end - best > 1) {
+				stack[top++] = best;
+				stack[top++] = end;
+			}
+		}
+	}
+
+	/*
+	 * Squared distance of point (px, py) from the segment from the origin to
+	 * (dx, dy) with squared length d2.
+	 */
+	private static double distance2(double px, double py, double dx,
+			double dy, double d2)
+	{
+		if (d2 == 0) {
+			return px * px + py * py;
+		}
+		double t = (px * dx + py * dy) / d2;
+		if (t <= 0) {
+			return px * px + py * py;
+		}
+		if (t >= 1) {
+			double ex = px - dx;
+			double ey = py - dy;
+			return ex * ex + ey * ey;
+		}
+		double cross = px * dy - py * dx;
+		return cross * cross / d2;
+	}
+
+	private void ensureCapacity(int capacity)
+	{
+		if (xs.length < capacity) {
+			int size = Math.max(capacity, xs.length * 2);
+			xs = new double[size];
+			ys = new double[size];
+			keep = new boolean[size];
+			// each segment on the stack splits the remaining range, so there
+			// are never more than size segments on it at once
+			stack = new int[size * 2];
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+/**
+ * The way latitudes are projected onto the Mercator square.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public enum ProjectionMode {
+
+	/**
+	 * Evaluate the Mercator function for each latitude.
+	 */
+	EXACT,
+
+	/**
+	 * Interpolate the Mercator function from a precomputed table. The
+	 * maximum error is 1.3e-11 times the size of the Mercator square, which
+	 * is below 1/16 pixel for world sizes of up to 2^32 pixels, i.e. 256
+	 * pixel tiles up to zoom level 24. Transformers with a bigger world size
+	 * fall back to exact projection. Latitudes outside the range covered by
+	 * the Mercator square are always projected exactly.
+	 */
+	APPROXIMATE
+
+}
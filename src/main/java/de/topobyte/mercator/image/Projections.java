@@ -0,0 +1,205 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+import de.topobyte.geomath.WGS84;
+
+/**
+ * Array based projection loops shared by the transformer implementations.
+ *
+ * Both MercatorImage and MercatorTileImage map a coordinate to pixel space by
+ * projecting it onto the unit Mercator square, scaling the result and
+ * subtracting an offset. The callers compute scale and offset once and pass
+ * them in, so that the loops only contain the projection itself. The inverse
+ * loops take the same scale and offset values and undo these steps.
+ *
+ * If requested, the latitude projection is approximated using the
+ * LatitudeTable, see {@link ProjectionMode#APPROXIMATE}.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class Projections
+{
+
+	/*
+	 * All loops read the input at [offset, offset + length) and write the
+	 * output at [outOffset, outOffset + length), so that callers can project
+	 * into buffers that start at index 0. Interleaved offsets count points.
+	 */
+
+	static void transform(double[] lons, double[] lats, int offset,
+			double[] outX, double[] outY, int outOffset, int length,
+			double scaleX, double offsetX, double scaleY, double offsetY,
+			boolean approximate)
+	{
+		int shift = outOffset - offset;
+		int end = offset + length;
+		// x and y are handled in separate loops: the x loop is plain
+		// arithmetic and does not have to wait for the more expensive y loop
+		for (int i = offset; i < end; i++) {
+			outX[i + shift] = WGS84.lon2merc(lons[i]) * scaleX - offsetX;
+		}
+		if (approximate) {
+			for (int i = offset; i < end; i++) {
+				outY[i + shift] = LatitudeTable.lat2merc(lats[i]) * scaleY
+						- offsetY;
+			}
+		} else {
+			for (int i = offset; i < end; i++) {
+				outY[i + shift] = WGS84.lat2merc(lats[i]) * scaleY - offsetY;
+			}
+		}
+	}
+
+	static void transform(double[] lonlat, int offset, double[] xy,
+			int outOffset, int length, double scaleX, double offsetX,
+			double scaleY, double offsetY, boolean approximate)
+	{
+		int shift = (outOffset - offset) * 2;
+		int end = (offset + length) * 2;
+		if (approximate) {
+			for (int i = offset * 2; i < end; i += 2) {
+				xy[i + shift] = WGS84.lon2merc(lonlat[i]) * scaleX - offsetX;
+				xy[i + shift + 1] = LatitudeTable.lat2merc(lonlat[i + 1])
+						* scaleY - offsetY;
+			}
+		} else {
+			for (int i = offset * 2; i < end; i += 2) {
+				xy[i + shift] = WGS84.lon2merc(lonlat[i]) * scaleX - offsetX;
+				xy[i + shift + 1] = WGS84.lat2merc(lonlat[i + 1]) * scaleY
+						- offsetY;
+			}
+		}
+	}
+
+	static void transform(double[] lons, double[] lats, int offset,
+			float[] outX, float[] outY, int outOffset, int length,
+			double scaleX, double offsetX, double scaleY, double offsetY,
+			boolean approximate)
+	{
+		int shift = outOffset - offset;
+		int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			outX[i + shift] = (float) (WGS84.lon2merc(lons[i]) * scaleX
+					- offsetX);
+		}
+		for (int i = offset; i < end; i++) {
+			outY[i + shift] = (float) (lat2merc(lats[i], approximate) * scaleY
+					- offsetY);
+		}
+	}
+
+	static void transform(double[] lonlat, int offset, float[] xy,
+			int outOffset, int length, double scaleX, double offsetX,
+			double scaleY, double offsetY, boolean approximate)
+	{
+		int shift = (outOffset - offset) * 2;
+		int end = (offset + length) * 2;
+		for (int i = offset * 2; i < end; i += 2) {
+			xy[i + shift] = (float) (WGS84.lon2merc(lonlat[i]) * scaleX
+					- offsetX);
+			xy[i + shift + 1] = (float) (lat2merc(lonlat[i + 1], approximate)
+					* scaleY - offsetY);
+		}
+	}
+
+	/*
+	 * Integer variants: coordinates are scaled to the whole world, rounded and
+	 * then shifted by an integer offset. This way, a point always has the same
+	 * rounded world coordinate, independent of the offset.
+	 */
+
+	static void transform(double[] lons, double[] lats, int offset,
+			int[] outX, int[] outY, int outOffset, int length, double scale,
+			long offsetX, long offsetY, boolean approximate)
+	{
+		int shift = outOffset - offset;
+		int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			outX[i + shift] = (int) (round(WGS84.lon2merc(lons[i]) * scale)
+					- offsetX);
+		}
+		for (int i = offset; i < end; i++) {
+			outY[i + shift] = (int) (round(lat2merc(lats[i], approximate)
+					* scale) - offsetY);
+		}
+	}
+
+	static void transform(double[] lonlat, int offset, int[] xy,
+			int outOffset, int length, double scale, long offsetX,
+			long offsetY, boolean approximate)
+	{
+		int shift = (outOffset - offset) * 2;
+		int end = (offset + length) * 2;
+		for (int i = offset * 2; i < end; i += 2) {
+			xy[i + shift] = (int) (round(WGS84.lon2merc(lonlat[i]) * scale)
+					- offsetX);
+			xy[i + shift + 1] = (int) (round(lat2merc(lonlat[i + 1],
+					approximate) * scale) - offsetY);
+		}
+	}
+
+	/*
+	 * Round half up, i.e. to the nearest integer with ties going towards
+	 * positive infinity.
+	 */
+	private static long round(double value)
+	{
+		return (long) Math.floor(value + 0.5);
+	}
+
+	/*
+	 * The branch is loop invariant in all callers, so the JIT can move it out
+	 * of the loops.
+	 */
+	private static double lat2merc(double lat, boolean approximate)
+	{
+		if (approximate) {
+			return LatitudeTable.lat2merc(lat);
+		}
+		return WGS84.lat2merc(lat);
+	}
+
+	static void inverse(double[] xs, double[] ys, double[] outLons,
+			double[] outLats, int offset, int length, double scaleX,
+			double offsetX, double scaleY, double offsetY)
+	{
+		int end = offset + length;
+		double fx = 1 / scaleX;
+		double fy = 1 / scaleY;
+		for (int i = offset; i < end; i++) {
+			outLons[i] = WGS84.merc2lon((xs[i] + offsetX) * fx, 1);
+		}
+		for (int i = offset; i < end; i++) {
+			outLats[i] = WGS84.merc2lat((ys[i] + offsetY) * fy, 1);
+		}
+	}
+
+	static void inverse(double[] xy, double[] lonlat, int offset, int length,
+			double scaleX, double offsetX, double scaleY, double offsetY)
+	{
+		int end = (offset + length) * 2;
+		double fx = 1 / scaleX;
+		double fy = 1 / scaleY;
+		for (int i = offset * 2; i < end; i += 2) {
+			lonlat[i] = WGS84.merc2lon((xy[i] + offsetX) * fx, 1);
+			lonlat[i + 1] = WGS84.merc2lat((xy[i + 1] + offsetY) * fy, 1);
+		}
+	}
+
+}
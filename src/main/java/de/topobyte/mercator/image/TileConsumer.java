@@ -0,0 +1,40 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+/**
+ * A callback that receives tile coordinates as primitive values.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public interface TileConsumer
+{
+
+	/**
+	 * Process the tile with the specified coordinates.
+	 *
+	 * @param zoom
+	 *            the zoom level.
+	 * @param x
+	 *            the x coordinate.
+	 * @param y
+	 *            the y coordinate.
+	 */
+	public void accept(int zoom, int x, int y);
+
+}
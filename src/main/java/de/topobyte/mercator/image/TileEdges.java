@@ -0,0 +1,174 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.topobyte.geomath.WGS84;
+
+/**
+ * The geographic coordinates of tile edges.
+ *
+ * All tiles in a row share the same top and bottom latitude. This class keeps
+ * a table of the latitudes of all row edges for each zoom level up to a
+ * configurable maximum, so that looking up the bounds of a tile does not
+ * require evaluating the inverse Mercator function. The table for a zoom level
+ * is created on first access and holds 2^zoom + 1 values, i.e. 8 MiB for zoom
+ * level 20. Edges on zoom levels above the maximum are computed on each
+ * access.
+ *
+ * Building a table costs one inverse projection per row, which the first
+ * lookup on a zoom level has to pay for. For high maximum zoom levels this
+ * takes milliseconds, so long running applications like tile servers should
+ * call <code>{@link #prepare(int)}</code> on startup.
+ *
+ * Longitudes are a linear function of the tile column and are always
+ * computed, which is cheaper than looking them up.
+ *
+ * Instances are thread-safe.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TileEdges
+{
+
+	/**
+	 * The highest zoom level for which tables can be kept.
+	 */
+	public static final int MAX_CACHEABLE_ZOOM = 22;
+
+	/**
+	 * The maximum zoom level of the default instance. The tables of all
+	 * levels up to this one need about 256 KiB of memory and are cheap to
+	 * build on first access.
+	 */
+	public static final int DEFAULT_MAX_CACHED_ZOOM = 14;
+
+	private static final TileEdges DEFAULT = new TileEdges(
+			DEFAULT_MAX_CACHED_ZOOM);
+
+	/**
+	 * @return the shared instance used by {@link MercatorTileImage} unless
+	 *         another instance has been set.
+	 */
+	public static TileEdges getDefault()
+	{
+		return DEFAULT;
+	}
+
+	private int maxCachedZoom;
+	private AtomicReferenceArray<double[]> latitudes;
+
+	/**
+	 * Create a new instance that keeps tables for zoom levels up to the
+	 * specified one.
+	 *
+	 * @param maxCachedZoom
+	 *            the maximum zoom level to keep tables for.
+	 * @throws IllegalArgumentException
+	 *             if maxCachedZoom is negative or bigger than
+	 *             {@value #MAX_CACHEABLE_ZOOM}.
+	 */
+	public TileEdges(int maxCachedZoom)
+	{
+		if (maxCachedZoom < 0 || maxCachedZoom > MAX_CACHEABLE_ZOOM) {
+			throw new IllegalArgumentException(
+					"invalid maximum zoom level: " + maxCachedZoom);
+		}
+		this.maxCachedZoom = maxCachedZoom;
+		latitudes = new AtomicReferenceArray<>(maxCachedZoom + 1);
+	}
+
+	/**
+	 * @return the maximum zoom level tables are kept for.
+	 */
+	public int getMaxCachedZoom()
+	{
+		return maxCachedZoom;
+	}
+
+	/**
+	 * Build the tables of all zoom levels up to the specified one, so that
+	 * later lookups do not have to. Levels above the maximum zoom level of
+	 * this instance are ignored.
+	 *
+	 * @param zoom
+	 *            the highest zoom level to build the table for.
+	 */
+	public void prepare(int zoom)
+	{
+		int max = Math.min(zoom, maxCachedZoom);
+		for (int z = 0; z <= max; z++) {
+			getLatitudes(z);
+		}
+	}
+
+	/**
+	 * Get the latitude of the top edge of the specified tile row.
+	 *
+	 * @param zoom
+	 *            the zoom level.
+	 * @param y
+	 *            the tile row. The value 2^zoom denotes the bottom edge of
+	 *            the last row. Rows outside of [0, 2^zoom] are computed
+	 *            instead of looked up.
+	 * @return the latitude of the edge.
+	 */
+	public double getLatitude(int zoom, int y)
+	{
+		if (zoom > maxCachedZoom || y < 0 || y > 1 << zoom) {
+			return WGS84.merc2lat(y, 1 << zoom);
+		}
+		return getLatitudes(zoom)[y];
+	}
+
+	/**
+	 * Get the longitude of the left edge of the specified tile column.
+	 *
+	 * @param zoom
+	 *            the zoom level.
+	 * @param x
+	 *            the tile column, in the range [0, 2^zoom]. The value 2^zoom
+	 *            denotes the right edge of the last column.
+	 * @return the longitude of the edge.
+	 */
+	public double getLongitude(int zoom, int x)
+	{
+		return WGS84.merc2lon(x, 1 << zoom);
+	}
+
+	private double[] getLatitudes(int zoom)
+	{
+		double[] table = latitudes.get(zoom);
+		if (table != null) {
+			return table;
+		}
+		// Concurrent callers may build the same table more than once, but
+		// only one of them is stored and all of them are equal.
+		int tiles = 1 << zoom;
+		table = new double[tiles + 1];
+		for (int y = 0; y <= tiles; y++) {
+			table[y] = WGS84.merc2lat(y, tiles);
+		}
+		if (latitudes.compareAndSet(zoom, null, table)) {
+			return table;
+		}
+		return latitudes.get(zoom);
+	}
+
+}
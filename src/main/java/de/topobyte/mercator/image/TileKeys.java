@@ -0,0 +1,265 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+/**
+ * Compact encodings of tile coordinates.
+ *
+ * A tile key packs zoom level, x and y into a single non-negative long value,
+ * which is suitable as a key for maps and caches. The zoom level is stored in
+ * bits 58 to 62, x in bits 29 to 57 and y in bits 0 to 28. This supports zoom
+ * levels up to {@value #MAX_ZOOM}. Keys of tiles on the same zoom level are
+ * ordered by x first, then by y.
+ *
+ * A Morton key stores the zoom level the same way, but interleaves the bits
+ * of x and y in bits 0 to 57 (x in the even bits, y in the odd bits). Tiles
+ * that are close to each other usually have close Morton keys. Within a zoom
+ * level, Morton keys are ordered like the corresponding quadkeys.
+ *
+ * A quadkey is the string representation used by Bing Maps, with one digit
+ * per zoom level.
+ *
+ * The encoding methods do not validate their arguments. Passing coordinates
+ * that are outside the valid range for the zoom level results in undefined
+ * keys.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TileKeys
+{
+
+	/**
+	 * The maximum zoom level that can be encoded.
+	 */
+	public static final int MAX_ZOOM = 29;
+
+	private static final int ZOOM_SHIFT = 58;
+	private static final int X_SHIFT = 29;
+	private static final long COORDINATE_MASK = (1L << 29) - 1;
+	private static final long MORTON_MASK = (1L << 58) - 1;
+
+	/**
+	 * Encode a tile as a packed key.
+	 *
+	 * @param zoom
+	 *            the zoom level.
+	 * @param x
+	 *            the x coordinate.
+	 * @param y
+	 *            the y coordinate.
+	 * @return the key.
+	 */
+	public static long encode(int zoom, int x, int y)
+	{
+		return (long) zoom << ZOOM_SHIFT | (long) x << X_SHIFT | y;
+	}
+
+	/**
+	 * @param key
+	 *            a packed key.
+	 * @return the zoom level of the tile.
+	 */
+	public static int getZoom(long key)
+	{
+		return (int) (key >>> ZOOM_SHIFT);
+	}
+
+	/**
+	 * @param key
+	 *            a packed key.
+	 * @return the x coordinate of the tile.
+	 */
+	public static int getX(long key)
+	{
+		return (int) (key >>> X_SHIFT & COORDINATE_MASK);
+	}
+
+	/**
+	 * @param key
+	 *            a packed key.
+	 * @return the y coordinate of the tile.
+	 */
+	public static int getY(long key)
+	{
+		return (int) (key & COORDINATE_MASK);
+	}
+
+	/**
+	 * Encode a tile as a Morton key.
+	 *
+	 * @param zoom
+	 *            the zoom level.
+	 * @param x
+	 *            the x coordinate.
+	 * @param y
+	 *            the y coordinate.
+	 * @return the Morton key.
+	 */
+	public static long encodeMorton(int zoom, int x, int y)
+	{
+		return (long) zoom << ZOOM_SHIFT | spread(x) | spread(y) << 1;
+	}
+
+	/**
+	 * @param morton
+	 *            a Morton key.
+	 * @return the zoom level of the tile.
+	 */
+	public static int getMortonZoom(long morton)
+	{
+		return (int) (morton >>> ZOOM_SHIFT);
+	}
+
+	/**
+	 * @param morton
+	 *            a Morton key.
+	 * @return the x coordinate of the tile.
+	 */
+	public static int getMortonX(long morton)
+	{
+		return compact(morton & MORTON_MASK);
+	}
+
+	/**
+	 * @param morton
+	 *            a Morton key.
+	 * @return the y coordinate of the tile.
+	 */
+	public static int getMortonY(long morton)
+	{
+		return compact((morton & MORTON_MASK) >>> 1);
+	}
+
+	/**
+	 * Convert a packed key to a Morton key.
+	 *
+	 * @param key
+	 *            a packed key.
+	 * @return the Morton key of the same tile.
+	 */
+	public static long toMorton(long key)
+	{
+		return encodeMorton(getZoom(key), getX(key), getY(key));
+	}
+
+	/**
+	 * Convert a Morton key to a packed key.
+	 *
+	 * @param morton
+	 *            a Morton key.
+	 * @return the packed key of the same tile.
+	 */
+	public static long fromMorton(long morton)
+	{
+		return encode(getMortonZoom(morton), getMortonX(morton),
+				getMortonY(morton));
+	}
+
+	/**
+	 * Create the quadkey of a tile.
+	 *
+	 * @param zoom
+	 *            the zoom level.
+	 * @param x
+	 *            the x coordinate.
+	 * @param y
+	 *            the y coordinate.
+	 * @return the quadkey, a string of length zoom.
+	 */
+	public static String toQuadKey(int zoom, int x, int y)
+	{
+		char[] digits = new char[zoom];
+		for (int i = 0; i < zoom; i++) {
+			int bit = zoom - 1 - i;
+			int digit = (x >>> bit & 1) | (y >>> bit & 1) << 1;
+			digits[i] = (char) ('0' + digit);
+		}
+		return new String(digits);
+	}
+
+	/**
+	 * Create the quadkey of a tile.
+	 *
+	 * @param key
+	 *            a packed key.
+	 * @return the quadkey.
+	 */
+	public static String toQuadKey(long key)
+	{
+		return toQuadKey(getZoom(key), getX(key), getY(key));
+	}
+
+	/**
+	 * Parse a quadkey.
+	 *
+	 * @param quadKey
+	 *            the quadkey.
+	 * @return the packed key of the tile denoted by the quadkey.
+	 * @throws IllegalArgumentException
+	 *             if the quadkey is too long or contains invalid characters.
+	 */
+	public static long fromQuadKey(String quadKey)
+	{
+		int zoom = quadKey.length();
+		if (zoom > MAX_ZOOM) {
+			throw new IllegalArgumentException(
+					"quadkey too long: " + quadKey);
+		}
+		int x = 0;
+		int y = 0;
+		for (int i = 0; i < zoom; i++) {
+			int digit = quadKey.charAt(i) - '0';
+			if (digit < 0 || digit > 3) {
+				throw new IllegalArgumentException(
+						"invalid quadkey: " + quadKey);
+			}
+			x = x << 1 | (digit & 1);
+			y = y << 1 | digit >>> 1;
+		}
+		return encode(zoom, x, y);
+	}
+
+	/*
+	 * Spread the lower 29 bits of the value to the even bits of the result.
+	 */
+	private static long spread(int value)
+	{
+		long v = value & COORDINATE_MASK;
+		v = (v | v << 16) & 0x0000FFFF0000FFFFL;
+		v = (v | v << 8) & 0x00FF00FF00FF00FFL;
+		v = (v | v << 4) & 0x0F0F0F0F0F0F0F0FL;
+		v = (v | v << 2) & 0x3333333333333333L;
+		v = (v | v << 1) & 0x5555555555555555L;
+		return v;
+	}
+
+	/*
+	 * Inverse of spread(): collect the even bits of the value.
+	 */
+	private static int compact(long value)
+	{
+		long v = value & 0x5555555555555555L;
+		v = (v | v >>> 1) & 0x3333333333333333L;
+		v = (v | v >>> 2) & 0x0F0F0F0F0F0F0F0FL;
+		v = (v | v >>> 4) & 0x00FF00FF00FF00FFL;
+		v = (v | v >>> 8) & 0x0000FFFF0000FFFFL;
+		v = (v | v >>> 16) & 0x00000000FFFFFFFFL;
+		return (int) v;
+	}
+
+}
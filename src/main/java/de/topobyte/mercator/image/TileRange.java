@@ -0,0 +1,250 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+import de.topobyte.adt.geo.BBox;
+import de.topobyte.geomath.WGS84;
+
+/**
+ * A rectangular range of tiles on a single zoom level. The range includes the
+ * tiles from minX to maxX and from minY to maxY, both inclusive.
+ *
+ * Tiles can be enumerated using <code>{@link #forEach(TileConsumer)}</code>,
+ * which passes the coordinates as primitive values and does not allocate any
+ * objects per tile.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TileRange
+{
+
+	private int zoom;
+	private int minX;
+	private int minY;
+	private int maxX;
+	private int maxY;
+
+	/**
+	 * Create a tile range from explicit coordinates.
+	 *
+	 * @param zoom
+	 *            the zoom level.
+	 * @param minX
+	 *            the leftmost tile column.
+	 * @param minY
+	 *            the top tile row.
+	 * @param maxX
+	 *            the rightmost tile column.
+	 * @param maxY
+	 *            the bottom tile row.
+	 */
+	public TileRange(int zoom, int minX, int minY, int maxX, int maxY)
+	{
+		this.zoom = zoom;
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	/**
+	 * Create the range of tiles on the specified zoom level that covers the
+	 * specified bounding box. The range is restricted to the tiles that exist
+	 * on the zoom level.
+	 *
+	 * @param bbox
+	 *            the bounding box to cover.
+	 * @param zoom
+	 *            the zoom level.
+	 * @return the tile range.
+	 */
+	public static TileRange of(BBox bbox, int zoom)
+	{
+		return of(bbox.getLon1(), bbox.getLat1(), bbox.getLon2(),
+				bbox.getLat2(), zoom);
+	}
+
+	/**
+	 * Create the range of tiles on the specified zoom level that covers the
+	 * specified bounding box. The range is restricted to the tiles that exist
+	 * on the zoom level.
+	 *
+	 * @param lon1
+	 *            leftmost longitude.
+	 * @param lat1
+	 *            top latitude.
+	 * @param lon2
+	 *            rightmost longitude.
+	 * @param lat2
+	 *            bottom latitude.
+	 * @param zoom
+	 *            the zoom level.
+	 * @return the tile range.
+	 */
+	public static TileRange of(double lon1, double lat1, double lon2,
+			double lat2, int zoom)
+	{
+		int tiles = 1 << zoom;
+		double x1 = WGS84.lon2merc(Math.min(lon1, lon2), tiles);
+		double x2 = WGS84.lon2merc(Math.max(lon1, lon2), tiles);
+		double y1 = WGS84.lat2merc(Math.max(lat1, lat2), tiles);
+		double y2 = WGS84.lat2merc(Math.min(lat1, lat2), tiles);
+
+		// a bbox that ends exactly on a tile boundary does not extend into the
+		// next tile, unless the bbox is degenerated to that boundary
+		int minX = clamp(Math.floor(x1), tiles);
+		int minY = clamp(Math.floor(y1), tiles);
+		int maxX = Math.max(minX, clamp(Math.ceil(x2) - 1, tiles));
+		int maxY = Math.max(minY, clamp(Math.ceil(y2) - 1, tiles));
+		return new TileRange(zoom, minX, minY, maxX, maxY);
+	}
+
+	private static int clamp(double value, int tiles)
+	{
+		if (!(value > 0)) {
+			return 0;
+		}
+		if (value >= tiles - 1) {
+			return tiles - 1;
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Call the consumer for each tile in the ranges covering the specified
+	 * bounding box on all zoom levels from minZoom to maxZoom (inclusive).
+	 * Tiles are enumerated zoom level by zoom level, row by row.
+	 *
+	 * @param bbox
+	 *            the bounding box to cover.
+	 * @param minZoom
+	 *            the first zoom level.
+	 * @param maxZoom
+	 *            the last zoom level.
+	 * @param consumer
+	 *            the consumer to call for each tile.
+	 */
+	public static void forEach(BBox bbox, int minZoom, int maxZoom,
+			TileConsumer consumer)
+	{
+		for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+			of(bbox, zoom).forEach(consumer);
+		}
+	}
+
+	/**
+	 * Call the consumer for each tile in this range, row by row.
+	 *
+	 * @param consumer
+	 *            the consumer to call for each tile.
+	 */
+	public void forEach(TileConsumer consumer)
+	{
+		for (int y = minY; y <= maxY; y++) {
+			for (int x = minX; x <= maxX; x++) {
+				consumer.accept(zoom, x, y);
+			}
+		}
+	}
+
+	/**
+	 * Check whether the specified tile is part of this range.
+	 *
+	 * @param x
+	 *            the x coordinate.
+	 * @param y
+	 *            the y coordinate.
+	 * @return whether the tile is within this range.
+	 */
+	public boolean contains(int x, int y)
+	{
+		return x >= minX && x <= maxX && y >= minY && y <= maxY;
+	}
+
+	/**
+	 * @return the number of tiles in this range.
+	 */
+	public long size()
+	{
+		return (long) getWidth() * getHeight();
+	}
+
+	/**
+	 * @return the number of tile columns in this range.
+	 */
+	public int getWidth()
+	{
+		return maxX - minX + 1;
+	}
+
+	/**
+	 * @return the number of tile rows in this range.
+	 */
+	public int getHeight()
+	{
+		return maxY - minY + 1;
+	}
+
+	/**
+	 * @return the zoom level.
+	 */
+	public int getZoom()
+	{
+		return zoom;
+	}
+
+	/**
+	 * @return the leftmost tile column.
+	 */
+	public int getMinX()
+	{
+		return minX;
+	}
+
+	/**
+	 * @return the top tile row.
+	 */
+	public int getMinY()
+	{
+		return minY;
+	}
+
+	/**
+	 * @return the rightmost tile column.
+	 */
+	public int getMaxX()
+	{
+		return maxX;
+	}
+
+	/**
+	 * @return the bottom tile row.
+	 */
+	public int getMaxY()
+	{
+		return maxY;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%d: %d..%d, %d..%d", zoom, minX, maxX, minY,
+				maxY);
+	}
+
+}
@@ -0,0 +1,150 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.cache;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from non-negative long keys to long values with open addressing
+ * and linear probing, which avoids allocating objects for entries. Not
+ * thread-safe.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class LongLongIndex
+{
+
+	static final long NONE = -1;
+
+	private long[] keys;
+	private long[] values;
+	private int mask;
+	private int size = 0;
+
+	LongLongIndex(int expected)
+	{
+		// at least twice the expected size, so that the load stays below 1/2
+		allocate(Integer.highestOneBit(Math.max(4, expected)) << 2);
+	}
+
+	private void allocate(int capacity)
+	{
+		keys = new long[capacity];
+		values = new long[capacity];
+		Arrays.fill(keys, NONE);
+		mask = capacity - 1;
+	}
+
+	private int slot(long key)
+	{
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @return the value for the key or {@link #NONE}.
+	 */
+	long get(long key)
+	{
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			long k = keys[i];
+			if (k == key) {
+				return values[i];
+			}
+			if (k == NONE) {
+				return NONE;
+			}
+		}
+	}
+
+	void put(long key, long value)
+	{
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			long k = keys[i];
+			if (k == key) {
+				values[i] = value;
+				return;
+			}
+			if (k == NONE) {
+				keys[i] = key;
+				values[i] = value;
+				if (++size > keys.length / 2) {
+					rehash();
+				}
+				return;
+			}
+		}
+	}
+
+	void remove(long key)
+	{
+		int i = slot(key);
+		while (true) {
+			long k = keys[i];
+			if (k == NONE) {
+				return;
+			}
+			if (k == key) {
+				break;
+			}
+			i = (i + 1) & mask;
+		}
+		size--;
+		// shift following entries back so that probe sequences stay intact
+		int gap = i;
+		for (int j = (gap + 1) & mask;; j = (j + 1) & mask) {
+			long k = keys[j];
+			if (k == NONE) {
+				break;
+			}
+			int home = slot(k);
+			// move the entry if its home slot is not within (gap, j]
+			if (((j - home) & mask) >= ((j - gap) & mask)) {
+				keys[gap] = k;
+				values[gap] = values[j];
+				gap = j;
+			}
+		}
+		keys[gap] = NONE;
+	}
+
+	void clear()
+	{
+		Arrays.fill(keys, NONE);
+		size = 0;
+	}
+
+	private void rehash()
+	{
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(oldKeys.length * 2);
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != NONE) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,341 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.topobyte.mercator.image.MercatorTileImage;
+import de.topobyte.mercator.image.TileKeys;
+
+/**
+ * A store for encoded tiles that keeps the tile data outside of the Java heap
+ * in direct byte buffers, so that large amounts of tiles do not add to the
+ * work of the garbage collector.
+ *
+ * The memory is divided into a fixed number of slabs of equal size. Tiles are
+ * appended to the current slab as records consisting of the packed key (see
+ * <code>{@link TileKeys}</code>), the length of the data and the data itself.
+ * Once the current slab is full, the next slab in turn becomes the current one.
+ * When all slabs are in use, the oldest slab is recycled, which evicts all
+ * tiles stored in it. An index mapping keys to record positions is kept in
+ * primitive arrays on the heap. Storing a tile again appends a new record; the
+ * space of the old record is reclaimed when its slab is recycled.
+ *
+ * Tiles can be retrieved as read-only views on the slab memory without
+ * copying. Such a view remains valid only until the slab it points into is
+ * recycled, after which it shows the data of other tiles. Each slab carries a
+ * generation number that is incremented whenever it is recycled, which allows
+ * views to detect this: callers consume a view, for example by writing it to
+ * a response, and check <code>{@link TileView#isValid()}</code> afterwards,
+ * discarding the result if the view has become invalid. Alternatively, a copy
+ * can be retrieved with <code>{@link #getBytes(long)}</code>.
+ *
+ * This class is thread-safe. Reads may proceed concurrently, writes are
+ * exclusive.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class OffHeapTileStore
+{
+
+	private static final int HEADER = 8 + 4;
+
+	private int slabSize;
+	private ByteBuffer[] slabs;
+	// the number of bytes used in each slab
+	private int[] slabEnds;
+	// incremented each time a slab is recycled
+	private int[] generations;
+	private int current = 0;
+
+	private LongLongIndex index = new LongLongIndex(1024);
+
+	private ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Create a store. Slabs are allocated when they are needed first.
+	 *
+	 * @param slabSize
+	 *            the size of each slab in bytes. This limits the size of a
+	 *            single tile.
+	 * @param numSlabs
+	 *            the number of slabs, at least 2.
+	 */
+	public OffHeapTileStore(int slabSize, int numSlabs)
+	{
+		if (numSlabs < 2) {
+			throw new IllegalArgumentException(
+					"at least 2 slabs are required: " + numSlabs);
+		}
+		this.slabSize = slabSize;
+		slabs = new ByteBuffer[numSlabs];
+		slabEnds = new int[numSlabs];
+		generations = new int[numSlabs];
+	}
+
+	/**
+	 * Store a tile.
+	 *
+	 * @param key
+	 *            the packed key of the tile.
+	 * @param data
+	 *            the buffer to read the data from, between its position and
+	 *            limit. Its position is not changed.
+	 * @return whether the tile has been stored. Tiles that do not fit into a
+	 *         single slab are not stored.
+	 */
+	public boolean put(long key, ByteBuffer data)
+	{
+		int length = data.remaining();
+		if (length > slabSize - HEADER) {
+			return false;
+		}
+		lock.writeLock().lock();
+		try {
+			if (slabs[current] == null) {
+				slabs[current] = ByteBuffer.allocateDirect(slabSize);
+			}
+			if (slabEnds[current] + HEADER + length > slabSize) {
+				advance();
+			}
+			ByteBuffer slab = slabs[current];
+			int offset = slabEnds[current];
+			slab.putLong(offset, key);
+			slab.putInt(offset + 8, length);
+			ByteBuffer target = slab.duplicate();
+			target.position(offset + HEADER);
+			target.put(data.duplicate());
+			slabEnds[current] = offset + HEADER + length;
+			index.put(key, (long) current << 32 | offset);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Store a tile.
+	 *
+	 * @param key
+	 *            the packed key of the tile.
+	 * @param data
+	 *            the data of the tile.
+	 * @return whether the tile has been stored. Tiles that do not fit into a
+	 *         single slab are not stored.
+	 */
+	public boolean put(long key, byte[] data)
+	{
+		return put(key, ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Store a tile.
+	 *
+	 * @param tile
+	 *            the tile.
+	 * @param data
+	 *            the data of the tile.
+	 * @return whether the tile has been stored.
+	 */
+	public boolean put(MercatorTileImage tile, byte[] data)
+	{
+		return put(tile.getKey(), data);
+	}
+
+	/*
+	 * Move on to the next slab, evicting all tiles stored in it. Needs to be
+	 * called with the write lock held.
+	 */
+	private void advance()
+	{
+		current = (current + 1) % slabs.length;
+		ByteBuffer slab = slabs[current];
+		if (slab == null) {
+			slabs[current] = ByteBuffer.allocateDirect(slabSize);
+			return;
+		}
+		// invalidate views before the memory is overwritten
+		generations[current]++;
+		int end = slabEnds[current];
+		for (int offset = 0; offset < end;) {
+			long key = slab.getLong(offset);
+			int length = slab.getInt(offset + 8);
+			// only remove the key if it has not been stored again since
+			if (index.get(key) == ((long) current << 32 | offset)) {
+				index.remove(key);
+			}
+			offset += HEADER + length;
+		}
+		slabEnds[current] = 0;
+	}
+
+	/**
+	 * Get a view of the data of a tile. The view is only valid until the slab
+	 * containing the tile is recycled, see the class documentation.
+	 *
+	 * @param key
+	 *            the packed key of the tile.
+	 * @return a view of the tile data or null if the tile is not stored.
+	 */
+	public TileView get(long key)
+	{
+		lock.readLock().lock();
+		try {
+			long location = index.get(key);
+			if (location == LongLongIndex.NONE) {
+				return null;
+			}
+			int slabIndex = (int) (location >>> 32);
+			ByteBuffer slab = slabs[slabIndex];
+			int offset = (int) location;
+			int length = slab.getInt(offset + 8);
+			ByteBuffer view = slab.asReadOnlyBuffer();
+			view.position(offset + HEADER);
+			view.limit(offset + HEADER + length);
+			return new TileView(this, slabIndex, generations[slabIndex],
+					view.slice());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get a view of the data of a tile.
+	 *
+	 * @param tile
+	 *            the tile.
+	 * @return a view of the tile data or null if the tile is not stored.
+	 * @see #get(long)
+	 */
+	public TileView get(MercatorTileImage tile)
+	{
+		return get(tile.getKey());
+	}
+
+	/*
+	 * Acquiring the lock orders the preceding reads of slab memory before the
+	 * check, and the generation is incremented before a slab is overwritten.
+	 */
+	boolean isValid(int slab, int generation)
+	{
+		lock.readLock().lock();
+		try {
+			return generations[slab] == generation;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get a copy of the data of a tile.
+	 *
+	 * @param key
+	 *            the packed key of the tile.
+	 * @return the tile data or null if the tile is not stored.
+	 */
+	public byte[] getBytes(long key)
+	{
+		lock.readLock().lock();
+		try {
+			TileView view = get(key);
+			if (view == null) {
+				return null;
+			}
+			byte[] data = new byte[view.getLength()];
+			view.getData().get(data);
+			return data;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param key
+	 *            the packed key of a tile.
+	 * @return whether the tile is stored.
+	 */
+	public boolean contains(long key)
+	{
+		lock.readLock().lock();
+		try {
+			return index.get(key) != LongLongIndex.NONE;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Remove all tiles. The slabs are kept for reuse.
+	 */
+	public void clear()
+	{
+		lock.writeLock().lock();
+		try {
+			index.clear();
+			for (int i = 0; i < slabEnds.length; i++) {
+				slabEnds[i] = 0;
+				generations[i]++;
+			}
+			current = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of tiles stored.
+	 */
+	public int getCount()
+	{
+		lock.readLock().lock();
+		try {
+			return index.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of bytes of slab memory in use, including records
+	 *         of tiles that have been stored again.
+	 */
+	public long getUsedBytes()
+	{
+		lock.readLock().lock();
+		try {
+			long bytes = 0;
+			for (int end : slabEnds) {
+				bytes += end;
+			}
+			return bytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the maximum number of bytes of slab memory.
+	 */
+	public long getCapacity()
+	{
+		return (long) slabSize * slabs.length;
+	}
+
+}
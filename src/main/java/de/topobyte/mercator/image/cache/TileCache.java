@@ -0,0 +1,402 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.cache;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.topobyte.mercator.image.TileKeys;
+
+/**
+ * An in-memory cache for encoded tiles that is bounded by the number of bytes
+ * of tile data it holds.
+ *
+ * Tiles are identified by their packed key (see
+ * <code>{@link TileKeys}</code>). The cache is split into segments, each of
+ * which holds the tiles of a part of the key space in least-recently-used
+ * order and evicts the least recently used tiles once it exceeds its share of
+ * the byte budget. Each segment is guarded by its own lock, so that threads
+ * accessing different tiles rarely contend.
+ *
+ * Tiles not present in the cache can be loaded with
+ * <code>{@link #get(int, int, int, TileLoader)}</code>. Concurrent requests for
+ * the same missing tile are coalesced so that the tile is loaded only once and
+ * all requesting threads receive the same result.
+ *
+ * The budget only accounts for the tile data, not for the overhead of the
+ * cache structures. Cached arrays are returned as they are and must not be
+ * modified by callers.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TileCache
+{
+
+	private Segment[] segments;
+	private int shift;
+	private long maxBytes;
+
+	private ConcurrentHashMap<Long, CompletableFuture<byte[]>> loading;
+
+	private LongAdder hits = new LongAdder();
+	private LongAdder misses = new LongAdder();
+	private LongAdder loads = new LongAdder();
+	private LongAdder evictions = new LongAdder();
+
+	/**
+	 * Create a cache with one segment per available processor, rounded up to
+	 * the next power of two.
+	 *
+	 * @param maxBytes
+	 *            the maximum number of bytes of tile data to keep.
+	 */
+	public TileCache(long maxBytes)
+	{
+		this(maxBytes, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a cache.
+	 *
+	 * @param maxBytes
+	 *            the maximum number of bytes of tile data to keep.
+	 * @param concurrency
+	 *            the number of segments, rounded up to the next power of two.
+	 */
+	public TileCache(long maxBytes, int concurrency)
+	{
+		this.maxBytes = maxBytes;
+		loading = new ConcurrentHashMap<>();
+		int bits = 32 - Integer
+				.numberOfLeadingZeros(Math.max(1, concurrency) - 1);
+		int n = 1 << bits;
+		shift = 64 - bits;
+		segments = new Segment[n];
+		for (int i = 0; i < n; i++) {
+			segments[i] = new Segment(maxBytes / n);
+		}
+	}
+
+	private Segment segment(long key)
+	{
+		if (segments.length == 1) {
+			return segments[0];
+		}
+		// spread neighboring tiles over the segments
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return segments[(int) (hash >>> shift)];
+	}
+
+	/**
+	 * Get a tile if it is present in the cache.
+	 *
+	 * @param key
+	 *            the packed key of the tile.
+	 * @return the data of the tile or null if it is not cached.
+	 */
+	public byte[] getIfPresent(long key)
+	{
+		byte[] data = segment(key).get(key);
+		if (data == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return data;
+	}
+
+	/**
+	 * Get a tile if it is present in the cache.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param x
+	 *            the x coordinate of the tile.
+	 * @param y
+	 *            the y coordinate of the tile.
+	 * @return the data of the tile or null if it is not cached.
+	 */
+	public byte[] getIfPresent(int zoom, int x, int y)
+	{
+		return getIfPresent(TileKeys.encode(zoom, x, y));
+	}
+
+	/**
+	 * Get a tile, loading it with the specified loader if it is not present
+	 * in the cache. If another thread is currently loading the same tile, wait
+	 * for its result instead of loading the tile again.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param x
+	 *            the x coordinate of the tile.
+	 * @param y
+	 *            the y coordinate of the tile.
+	 * @param loader
+	 *            the loader to use on a cache miss.
+	 * @return the data of the tile or null if the loader returned null.
+	 * @throws IOException
+	 *             if loading the tile fails.
+	 */
+	public byte[] get(int zoom, int x, int y, TileLoader loader)
+			throws IOException
+	{
+		long key = TileKeys.encode(zoom, x, y);
+		byte[] data = getIfPresent(key);
+		if (data != null) {
+			return data;
+		}
+
+		CompletableFuture<byte[]> future = new CompletableFuture<>();
+		CompletableFuture<byte[]> running = loading.putIfAbsent(key, future);
+		if (running != null) {
+			return await(running);
+		}
+
+		try {
+			// the tile may have been stored while we were not looking
+			data = segment(key).get(key);
+			if (data == null) {
+				loads.increment();
+				data = loader.load(zoom, x, y);
+				if (data != null) {
+					put(key, data);
+				}
+			}
+			future.complete(data);
+			return data;
+		} catch (IOException | RuntimeException | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(key, future);
+		}
+	}
+
+	private static byte[] await(CompletableFuture<byte[]> future)
+			throws IOException
+	{
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while waiting for tile", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw new IOException(cause.getMessage(), cause);
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Store a tile in the cache. Tiles bigger than the share of the budget of
+	 * a single segment are not stored.
+	 *
+	 * @param key
+	 *            the packed key of the tile.
+	 * @param data
+	 *            the data of the tile.
+	 */
+	public void put(long key, byte[] data)
+	{
+		segment(key).put(key, data);
+	}
+
+	/**
+	 * Store a tile in the cache.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param x
+	 *            the x coordinate of the tile.
+	 * @param y
+	 *            the y coordinate of the tile.
+	 * @param data
+	 *            the data of the tile.
+	 */
+	public void put(int zoom, int x, int y, byte[] data)
+	{
+		put(TileKeys.encode(zoom, x, y), data);
+	}
+
+	/**
+	 * Remove a tile from the cache.
+	 *
+	 * @param key
+	 *            the packed key of the tile.
+	 */
+	public void invalidate(long key)
+	{
+		segment(key).remove(key);
+	}
+
+	/**
+	 * Remove all tiles from the cache.
+	 */
+	public void clear()
+	{
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * @return the maximum number of bytes of tile data to keep.
+	 */
+	public long getMaxBytes()
+	{
+		return maxBytes;
+	}
+
+	/**
+	 * @return the number of bytes of tile data currently cached.
+	 */
+	public long getBytes()
+	{
+		long bytes = 0;
+		for (Segment segment : segments) {
+			bytes += segment.getBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return the number of tiles currently cached.
+	 */
+	public int getCount()
+	{
+		int count = 0;
+		for (Segment segment : segments) {
+			count += segment.getCount();
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of lookups that found a cached tile.
+	 */
+	public long getHits()
+	{
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that did not find a cached tile.
+	 */
+	public long getMisses()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of times a loader has been invoked.
+	 */
+	public long getLoads()
+	{
+		return loads.sum();
+	}
+
+	/**
+	 * @return the number of tiles evicted to stay within the budget.
+	 */
+	public long getEvictions()
+	{
+		return evictions.sum();
+	}
+
+	private class Segment
+	{
+
+		private long maxBytes;
+		private long bytes = 0;
+		private LinkedHashMap<Long, byte[]> map = new LinkedHashMap<>(16,
+				0.75f, true);
+
+		Segment(long maxBytes)
+		{
+			this.maxBytes = maxBytes;
+		}
+
+		synchronized byte[] get(long key)
+		{
+			return map.get(key);
+		}
+
+		synchronized void put(long key, byte[] data)
+		{
+			if (data.length > maxBytes) {
+				remove(key);
+				return;
+			}
+			byte[] old = map.put(key, data);
+			if (old != null) {
+				bytes -= old.length;
+			}
+			bytes += data.length;
+
+			Iterator<Map.Entry<Long, byte[]>> iterator = map.entrySet()
+					.iterator();
+			while (bytes > maxBytes) {
+				Map.Entry<Long, byte[]> eldest = iterator.next();
+				bytes -= eldest.getValue().length;
+				iterator.remove();
+				evictions.increment();
+			}
+		}
+
+		synchronized void remove(long key)
+		{
+			byte[] old = map.remove(key);
+			if (old != null) {
+				bytes -= old.length;
+			}
+		}
+
+		synchronized void clear()
+		{
+			map.clear();
+			bytes = 0;
+		}
+
+		synchronized long getBytes()
+		{
+			return bytes;
+		}
+
+		synchronized int getCount()
+		{
+			return map.size();
+		}
+
+	}
+
+}
@@ -0,0 +1,47 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.cache;
+
+import java.io.IOException;
+
+/**
+ * Produces the data of tiles that are not in a cache yet, for example by
+ * rendering and encoding them.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public interface TileLoader
+{
+
+	/**
+	 * Load a tile. Implementations may be called concurrently for different
+	 * tiles and need to be thread-safe.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param x
+	 *            the x coordinate of the tile.
+	 * @param y
+	 *            the y coordinate of the tile.
+	 * @return the data of the tile or null if there is no such tile.
+	 * @throws IOException
+	 *             on failure while loading the tile.
+	 */
+	public byte[] load(int zoom, int x, int y) throws IOException;
+
+}
@@ -0,0 +1,82 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A view of the data of a tile in an <code>{@link OffHeapTileStore}</code>.
+ *
+ * The view refers to the memory of the store directly. Once the slab the tile
+ * is stored in has been recycled, the memory holds the data of other tiles.
+ * Use <code>{@link #isValid()}</code> after consuming the data, for example
+ * after writing it to a response or copying it, to check whether the data
+ * consumed was intact. If the view has become invalid in the meantime, the
+ * data must be discarded.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TileView
+{
+
+	private OffHeapTileStore store;
+	private int slab;
+	private int generation;
+	private ByteBuffer data;
+
+	TileView(OffHeapTileStore store, int slab, int generation,
+			ByteBuffer data)
+	{
+		this.store = store;
+		this.slab = slab;
+		this.generation = generation;
+		this.data = data;
+	}
+
+	/**
+	 * Get the data of the tile. Each call returns a new read-only buffer with
+	 * the tile data between its position and limit.
+	 *
+	 * @return the data of the tile.
+	 */
+	public ByteBuffer getData()
+	{
+		return data.duplicate();
+	}
+
+	/**
+	 * @return the length of the tile data in bytes.
+	 */
+	public int getLength()
+	{
+		return data.remaining();
+	}
+
+	/**
+	 * Check whether the memory this view refers to still holds the data of
+	 * the tile. All reads of the data that happened before this call are
+	 * covered by the check.
+	 *
+	 * @return whether the view is still valid.
+	 */
+	public boolean isValid()
+	{
+		return store.isValid(slab, generation);
+	}
+
+}
@@ -0,0 +1,270 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.io;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+import de.topobyte.mercator.image.MercatorTileImage;
+import de.topobyte.mercator.image.render.TileOutput;
+
+/**
+ * A tile output that encodes rendered tiles with ImageIO and passes the
+ * encoded data to a <code>{@link TileSink}</code>.
+ *
+ * Large parts of a tile pyramid usually consist of tiles filled with a single
+ * color, like empty sea or land. Such tiles are detected by a scan over the
+ * raster before encoding, and their encoded data is cached per raw pixel
+ * value, so that each distinct uniform tile is encoded only once and the same
+ * array is passed to the sink for all of them. This can be disabled with
+ * <code>{@link #setCacheUniformTiles(boolean)}</code>.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class EncodingTileOutput implements TileOutput
+{
+
+	private static final int MAX_UNIFORM_TILES = 256;
+
+	private TileSink sink;
+	private String format;
+
+	private boolean cacheUniformTiles = true;
+	private ConcurrentHashMap<UniformTile, byte[]> uniformTiles;
+
+	/**
+	 * Create an output that encodes tiles as PNG.
+	 *
+	 * @param sink
+	 *            the sink to pass the encoded tiles to.
+	 */
+	public EncodingTileOutput(TileSink sink)
+	{
+		this(sink, "png");
+	}
+
+	/**
+	 * Create an output.
+	 *
+	 * @param sink
+	 *            the sink to pass the encoded tiles to.
+	 * @param format
+	 *            the ImageIO format name to encode tiles with.
+	 */
+	public EncodingTileOutput(TileSink sink, String format)
+	{
+		this.sink = sink;
+		this.format = format;
+		uniformTiles = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Set whether to cache the encoded data of tiles filled with a single
+	 * color. The default is true.
+	 *
+	 * @param cacheUniformTiles
+	 *            whether to cache uniform tiles.
+	 */
+	public void setCacheUniformTiles(boolean cacheUniformTiles)
+	{
+		this.cacheUniformTiles = cacheUniformTiles;
+	}
+
+	@Override
+	public void output(MercatorTileImage tile, BufferedImage image)
+			throws IOException
+	{
+		byte[] data = null;
+		Object pixel = cacheUniformTiles ? uniformPixel(image) : null;
+		if (pixel != null) {
+			UniformTile key = new UniformTile(image, pixel);
+			data = uniformTiles.get(key);
+			if (data == null) {
+				data = encode(image);
+				// only a few colors are expected, don't grow without bounds
+				if (uniformTiles.size() < MAX_UNIFORM_TILES) {
+					uniformTiles.putIfAbsent(key, data);
+				}
+			}
+		} else {
+			data = encode(image);
+		}
+		sink.put(tile.getTileZoom(), tile.getTileX(), tile.getTileY(), data);
+	}
+
+	/*
+	 * Return the raw value of the pixels if the image is uniform, null
+	 * otherwise. Images with a custom or indexed color model are never
+	 * considered uniform, as their raw values do not identify a color without
+	 * the color model.
+	 */
+	static Object uniformPixel(BufferedImage image)
+	{
+		switch (image.getType()) {
+		case BufferedImage.TYPE_CUSTOM:
+		case BufferedImage.TYPE_BYTE_BINARY:
+		case BufferedImage.TYPE_BYTE_INDEXED:
+			return null;
+		default:
+			return uniformPixel(image.getRaster());
+		}
+	}
+
+	/*
+	 * Check whether all pixels have the same raw value, row by row without
+	 * color conversion. Returns that value as an array of data elements, or
+	 * null if the raster is not uniform.
+	 */
+	static Object uniformPixel(Raster raster)
+	{
+		int w = raster.getWidth();
+		int h = raster.getHeight();
+		int x0 = raster.getMinX();
+		int y0 = raster.getMinY();
+		int n = raster.getNumDataElements();
+		Object first = raster.getDataElements(x0, y0, null);
+		Object row = null;
+		for (int y = 0; y < h; y++) {
+			row = raster.getDataElements(x0, y0 + y, w, 1, row);
+			switch (raster.getTransferType()) {
+			case DataBuffer.TYPE_INT:
+				if (!isUniform((int[]) first, (int[]) row, w, n)) {
+					return null;
+				}
+				break;
+			case DataBuffer.TYPE_BYTE:
+				if (!isUniform((byte[]) first, (byte[]) row, w, n)) {
+					return null;
+				}
+				break;
+			default:
+				return null;
+			}
+		}
+		return first;
+	}
+
+	private static boolean isUniform(int[] first, int[] row, int w, int n)
+	{
+		for (int i = 0, k = 0; i < w; i++) {
+			for (int j = 0; j < n; j++, k++) {
+				if (row[k] != first[j]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean isUniform(byte[] first, byte[] row, int w, int n)
+	{
+		for (int i = 0, k = 0; i < w; i++) {
+			for (int j = 0; j < n; j++, k++) {
+				if (row[k] != first[j]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Encode an image in the format of this output.
+	 *
+	 * @param image
+	 *            the image to encode.
+	 * @return the encoded data.
+	 * @throws IOException
+	 *             if encoding fails or no writer for the format is available.
+	 */
+	public byte[] encode(BufferedImage image) throws IOException
+	{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		if (!ImageIO.write(image, format, baos)) {
+			throw new IOException("no writer available for format: " + format);
+		}
+		return baos.toByteArray();
+	}
+
+	/*
+	 * Identifies the encoded form of a uniform tile. The raw pixel value is
+	 * used instead of the RGB color, as different raw values may map to the
+	 * same RGB color, e.g. in gray images, but still encode differently.
+	 */
+	private static class UniformTile
+	{
+
+		private final Object pixel;
+		private final int type;
+		private final int width;
+		private final int height;
+
+		UniformTile(BufferedImage image, Object pixel)
+		{
+			this.pixel = pixel;
+			type = image.getType();
+			width = image.getWidth();
+			height = image.getHeight();
+		}
+
+		private int pixelHash()
+		{
+			if (pixel instanceof int[]) {
+				return Arrays.hashCode((int[]) pixel);
+			}
+			return Arrays.hashCode((byte[]) pixel);
+		}
+
+		private boolean pixelEquals(Object other)
+		{
+			if (pixel instanceof int[] && other instanceof int[]) {
+				return Arrays.equals((int[]) pixel, (int[]) other);
+			}
+			if (pixel instanceof byte[] && other instanceof byte[]) {
+				return Arrays.equals((byte[]) pixel, (byte[]) other);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return ((pixelHash() * 31 + type) * 31 + width) * 31 + height;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof UniformTile)) {
+				return false;
+			}
+			UniformTile other = (UniformTile) obj;
+			return type == other.type && width == other.width
+					&& height == other.height && pixelEquals(other.pixel);
+		}
+
+	}
+
+}
@@ -0,0 +1,49 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.io;
+
+import java.io.IOException;
+
+/**
+ * Receives the encoded data of tiles, for example to store them in a file.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public interface TileSink
+{
+
+	/**
+	 * Store a tile. Implementations are called concurrently from multiple
+	 * threads and need to be thread-safe.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param x
+	 *            the x coordinate of the tile.
+	 * @param y
+	 *            the y coordinate of the tile.
+	 * @param data
+	 *            the encoded data of the tile. The array is not modified by
+	 *            the caller afterwards and must not be modified by the sink
+	 *            either, since it may be shared between identical tiles.
+	 * @throws IOException
+	 *             on failure while storing the tile.
+	 */
+	public void put(int zoom, int x, int y, byte[] data) throws IOException;
+
+}
@@ -0,0 +1,45 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.mbtiles;
+
+/**
+ * Utilities for the MBTiles format. MBTiles stores tiles in TMS order, i.e.
+ * with the rows of each zoom level counted from the south instead of from the
+ * north as with <code>{@link de.topobyte.mercator.image.MercatorTileImage}</code>.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MBTiles
+{
+
+	/**
+	 * Convert between the y coordinate of a tile and its TMS row. The
+	 * conversion is its own inverse.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param y
+	 *            the y coordinate or TMS row of the tile.
+	 * @return the TMS row or y coordinate of the tile.
+	 */
+	public static int flipY(int zoom, int y)
+	{
+		return (1 << zoom) - 1 - y;
+	}
+
+}
@@ -0,0 +1,153 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.mbtiles;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import de.topobyte.mercator.image.MercatorTileImage;
+import de.topobyte.mercator.image.cache.TileLoader;
+
+/**
+ * Reads tiles from an MBTiles database through a JDBC connection provided by
+ * the caller. Tiles are addressed with the y coordinates used by
+ * <code>{@link MercatorTileImage}</code> and converted to TMS rows internally.
+ *
+ * The reader implements <code>{@link TileLoader}</code>, so that it can be
+ * used to fill a <code>{@link de.topobyte.mercator.image.cache.TileCache}</code>.
+ * The connection is not closed by <code>{@link #close()}</code>.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MBTilesReader implements TileLoader, Closeable
+{
+
+	private Connection connection;
+	private PreparedStatement selectTile;
+
+	/**
+	 * Create a reader.
+	 *
+	 * @param connection
+	 *            the connection to the database.
+	 * @throws IOException
+	 *             if preparing the queries fails.
+	 */
+	public MBTilesReader(Connection connection) throws IOException
+	{
+		this.connection = connection;
+		try {
+			selectTile = connection.prepareStatement(
+					"SELECT tile_data FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?");
+		} catch (SQLException e) {
+			throw new IOException("unable to prepare query", e);
+		}
+	}
+
+	/**
+	 * Get the data of a tile.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param x
+	 *            the x coordinate of the tile.
+	 * @param y
+	 *            the y coordinate of the tile, counted from the north.
+	 * @return the tile data or null if the tile is not in the database.
+	 * @throws IOException
+	 *             on failure while reading from the database.
+	 */
+	public synchronized byte[] getBytes(int zoom, int x, int y)
+			throws IOException
+	{
+		try {
+			selectTile.setInt(1, zoom);
+			selectTile.setInt(2, x);
+			selectTile.setInt(3, MBTiles.flipY(zoom, y));
+			try (ResultSet result = selectTile.executeQuery()) {
+				if (!result.next()) {
+					return null;
+				}
+				return result.getBytes(1);
+			}
+		} catch (SQLException e) {
+			throw new IOException("unable to read tile", e);
+		}
+	}
+
+	/**
+	 * Get the data of a tile.
+	 *
+	 * @param tile
+	 *            the tile.
+	 * @return the tile data or null if the tile is not in the database.
+	 * @throws IOException
+	 *             on failure while reading from the database.
+	 */
+	public byte[] getBytes(MercatorTileImage tile) throws IOException
+	{
+		return getBytes(tile.getTileZoom(), tile.getTileX(),
+				tile.getTileY());
+	}
+
+	@Override
+	public byte[] load(int zoom, int x, int y) throws IOException
+	{
+		return getBytes(zoom, x, y);
+	}
+
+	/**
+	 * Get a metadata value.
+	 *
+	 * @param name
+	 *            the name of the entry.
+	 * @return the value or null if there is no such entry.
+	 * @throws IOException
+	 *             on failure while reading from the database.
+	 */
+	public synchronized String getMetadata(String name) throws IOException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(
+				"SELECT value FROM metadata WHERE name = ?")) {
+			statement.setString(1, name);
+			try (ResultSet result = statement.executeQuery()) {
+				return result.next() ? result.getString(1) : null;
+			}
+		} catch (SQLException e) {
+			throw new IOException("unable to read metadata", e);
+		}
+	}
+
+	/**
+	 * Release the prepared statements. The connection stays open.
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		try {
+			selectTile.close();
+		} catch (SQLException e) {
+			throw new IOException("unable to close statement", e);
+		}
+	}
+
+}
@@ -0,0 +1,318 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.mbtiles;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.topobyte.mercator.image.io.TileSink;
+
+/**
+ * Writes tiles to an MBTiles database through a JDBC connection, which needs to
+ * be provided by the caller. Since MBTiles files are SQLite databases, this
+ * is expected to be a connection obtained from an SQLite JDBC driver.
+ *
+ * Tiles are stored deduplicated: the table 'images' holds each distinct tile
+ * once, identified by a hash of its content, and the table 'map' references
+ * images by that identifier. The 'tiles' view required by the specification
+ * joins both tables. This way, large numbers of identical tiles, like empty
+ * ocean tiles, take up space only once.
+ *
+ * Inserts are collected in batches of prepared statements and committed
+ * together every few thousand tiles. The connection is switched to manual
+ * commit mode while the writer is open. <code>{@link #close()}</code> commits
+ * the remaining tiles and restores the previous commit mode, but does not
+ * close the connection. Metadata is committed immediately, also after the
+ * writer has been closed. If writing fails, all tiles since the last commit
+ * are rolled back and discarded before the exception is passed on.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MBTilesWriter implements TileSink, Closeable
+{
+
+	private static final int RECENT_IMAGES = 1024;
+
+	private Connection connection;
+	private int batchSize;
+
+	private PreparedStatement insertImage;
+	private PreparedStatement insertMap;
+	private int pending = 0;
+	private boolean autoCommit;
+	private boolean closed = false;
+
+	// identifiers of recently stored images, to skip redundant inserts
+	private Map<String, Boolean> recent = new LinkedHashMap<String, Boolean>(
+			16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest)
+		{
+			return size() > RECENT_IMAGES;
+		}
+
+	};
+
+	/**
+	 * Create a writer that commits every 10000 tiles.
+	 *
+	 * @param connection
+	 *            the connection to the database.
+	 * @throws IOException
+	 *             if creating the schema fails.
+	 */
+	public MBTilesWriter(Connection connection) throws IOException
+	{
+		this(connection, 10000);
+	}
+
+	/**
+	 * Create a writer.
+	 *
+	 * @param connection
+	 *            the connection to the database.
+	 * @param batchSize
+	 *            the number of tiles to insert per transaction.
+	 * @throws IOException
+	 *             if creating the schema fails.
+	 */
+	public MBTilesWriter(Connection connection, int batchSize)
+			throws IOException
+	{
+		this.connection = connection;
+		this.batchSize = Math.max(1, batchSize);
+		try {
+			createSchema();
+			insertImage = connection.prepareStatement(
+					"INSERT OR IGNORE INTO images (tile_id, tile_data) VALUES (?, ?)");
+			insertMap = connection.prepareStatement(
+					"INSERT OR REPLACE INTO map (zoom_level, tile_column, tile_row, tile_id) VALUES (?, ?, ?, ?)");
+			// switch the commit mode last, so that a failure above leaves the
+			// connection as it was
+			autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+		} catch (SQLException e) {
+			closeStatements();
+			throw new IOException("unable to initialize database", e);
+		}
+	}
+
+	private void closeStatements()
+	{
+		try {
+			if (insertImage != null) {
+				insertImage.close();
+			}
+			if (insertMap != null) {
+				insertMap.close();
+			}
+		} catch (SQLException e) {
+			// ignore, the statements are not used anymore
+		}
+	}
+
+	private void createSchema() throws SQLException
+	{
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(
+					"CREATE TABLE IF NOT EXISTS metadata (name TEXT, value TEXT)");
+			statement.execute(
+					"CREATE UNIQUE INDEX IF NOT EXISTS metadata_name ON metadata (name)");
+			statement.execute(
+					"CREATE TABLE IF NOT EXISTS map (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_id TEXT)");
+			statement.execute(
+					"CREATE UNIQUE INDEX IF NOT EXISTS map_index ON map (zoom_level, tile_column, tile_row)");
+			statement.execute(
+					"CREATE TABLE IF NOT EXISTS images (tile_data BLOB, tile_id TEXT)");
+			statement.execute(
+					"CREATE UNIQUE INDEX IF NOT EXISTS images_id ON images (tile_id)");
+			statement.execute("CREATE VIEW IF NOT EXISTS tiles AS"
+					+ " SELECT map.zoom_level AS zoom_level,"
+					+ " map.tile_column AS tile_column,"
+					+ " map.tile_row AS tile_row,"
+					+ " images.tile_data AS tile_data"
+					+ " FROM map JOIN images ON images.tile_id = map.tile_id");
+		}
+	}
+
+	/**
+	 * Set a metadata value, replacing any previous value. The value is
+	 * committed together with all pending tiles.
+	 *
+	 * @param name
+	 *            the name of the entry, for example 'name', 'format' or
+	 *            'bounds'.
+	 * @param value
+	 *            the value of the entry.
+	 * @throws IOException
+	 *             on failure while writing to the database.
+	 */
+	public synchronized void putMetadata(String name, String value)
+			throws IOException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(
+				"INSERT OR REPLACE INTO metadata (name, value) VALUES (?, ?)")) {
+			statement.setString(1, name);
+			statement.setString(2, value);
+			statement.executeUpdate();
+			if (!closed) {
+				flush();
+			} else if (!connection.getAutoCommit()) {
+				connection.commit();
+			}
+		} catch (SQLException e) {
+			throw new IOException("unable to write metadata", e);
+		}
+	}
+
+	/**
+	 * Add a tile. The y coordinate is converted to the TMS row.
+	 *
+	 * @throws IllegalStateException
+	 *             if the writer has been closed.
+	 */
+	@Override
+	public void put(int zoom, int x, int y, byte[] data) throws IOException
+	{
+		// hashing can proceed concurrently, only the batches are shared
+		String id = hash(data);
+		synchronized (this) {
+			if (closed) {
+				throw new IllegalStateException("writer is closed");
+			}
+			try {
+				if (recent.put(id, Boolean.TRUE) == null) {
+					insertImage.setString(1, id);
+					insertImage.setBytes(2, data);
+					insertImage.addBatch();
+				}
+				insertMap.setInt(1, zoom);
+				insertMap.setInt(2, x);
+				insertMap.setInt(3, MBTiles.flipY(zoom, y));
+				insertMap.setString(4, id);
+				insertMap.addBatch();
+			} catch (SQLException e) {
+				discard();
+				throw new IOException("unable to write tile", e);
+			}
+			if (++pending >= batchSize) {
+				try {
+					flush();
+				} catch (SQLException e) {
+					throw new IOException("unable to write tile", e);
+				}
+			}
+		}
+	}
+
+	private static String hash(byte[] data)
+	{
+		byte[] hash;
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			hash = digest.digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		StringBuilder buffer = new StringBuilder(hash.length * 2);
+		for (byte b : hash) {
+			buffer.append(Character.forDigit((b >> 4) & 0xF, 16));
+			buffer.append(Character.forDigit(b & 0xF, 16));
+		}
+		return buffer.toString();
+	}
+
+	private void flush() throws SQLException
+	{
+		try {
+			// images first, so that the view never references missing images
+			insertImage.executeBatch();
+			insertMap.executeBatch();
+			connection.commit();
+			pending = 0;
+		} catch (SQLException e) {
+			discard();
+			throw e;
+		}
+	}
+
+	/*
+	 * Drop everything since the last commit. The identifiers of images that
+	 * were part of the lost batch are still in the list of recent images, so
+	 * that list needs to be cleared as well, otherwise later tiles with the
+	 * same content would reference images that have never been stored.
+	 */
+	private void discard()
+	{
+		recent.clear();
+		pending = 0;
+		try {
+			insertImage.clearBatch();
+			insertMap.clearBatch();
+		} catch (SQLException e) {
+			// ignore, the batches are not executed anymore
+		}
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			// ignore, the original failure is reported
+		}
+	}
+
+	/**
+	 * Commit all pending tiles, release the prepared statements and restore
+	 * the commit mode of the connection. The connection stays open.
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if (closed) {
+			return;
+		}
+		closed = true;
+		SQLException failure = null;
+		try {
+			flush();
+		} catch (SQLException e) {
+			failure = e;
+		}
+		closeStatements();
+		try {
+			connection.setAutoCommit(autoCommit);
+		} catch (SQLException e) {
+			if (failure == null) {
+				failure = e;
+			}
+		}
+		if (failure != null) {
+			throw new IOException("unable to complete writing", failure);
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.mvt;
+
+/**
+ * The geometry types of vector tile features.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public enum GeometryType {
+
+	/**
+	 * One or more points.
+	 */
+	POINT(1),
+	/**
+	 * One or more line strings.
+	 */
+	LINESTRING(2),
+	/**
+	 * One or more polygons, each with an exterior ring and optional holes.
+	 */
+	POLYGON(3);
+
+	private int value;
+
+	private GeometryType(int value)
+	{
+		this.value = value;
+	}
+
+	/**
+	 * @return the value used for this type in the encoded tile.
+	 */
+	public int getValue()
+	{
+		return value;
+	}
+
+}
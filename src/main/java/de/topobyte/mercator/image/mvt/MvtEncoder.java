@@ -0,0 +1,676 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.mvt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.topobyte.mercator.image.MercatorTileImage;
+
+/**
+ * A streaming encoder for Mapbox Vector Tiles (version 2).
+ *
+ * Features are passed in lon/lat coordinates, projected to the tile using
+ * {@link MercatorTileImage#transform(double[], double[], int, int[], int[], int, int, int)}
+ * and written to the output buffer immediately, without building an object
+ * model of the tile. A tile is encoded using a sequence of calls like this:
+ *
+ * <pre>
+ * encoder.reset(tile);
+ * encoder.beginLayer("roads");
+ * encoder.beginFeature();
+ * encoder.addTag("highway", "primary");
+ * encoder.addLineString(lons, lats, 0, n);
+ * encoder.endFeature();
+ * encoder.endLayer();
+ * byte[] bytes = encoder.toByteArray();
+ * </pre>
+ *
+ * The geometry type of a feature is defined by the first geometry added to
+ * it. Within lines and rings, consecutive points that are equal after rounding
+ * to the tile extent are merged and degenerate lines and rings are dropped;
+ * points of multi point geometries are kept as they are. Features without any
+ * remaining geometry are omitted. Polygon rings are reoriented as required by
+ * the specification. The encoder does not clip geometries.
+ *
+ * All buffers are reused when the encoder is reset, so a single instance
+ * should be used for encoding many tiles. Instances are not thread-safe.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MvtEncoder
+{
+
+	private static final int CMD_MOVE_TO = 1;
+	private static final int CMD_LINE_TO = 2;
+	private static final int CMD_CLOSE_PATH = 7;
+
+	// Tile
+	private static final int TILE_LAYERS = 3;
+	// Layer
+	private static final int LAYER_NAME = 1;
+	private static final int LAYER_FEATURES = 2;
+	private static final int LAYER_KEYS = 3;
+	private static final int LAYER_VALUES = 4;
+	private static final int LAYER_EXTENT = 5;
+	private static final int LAYER_VERSION = 15;
+	// Feature
+	private static final int FEATURE_ID = 1;
+	private static final int FEATURE_TAGS = 2;
+	private static final int FEATURE_TYPE = 3;
+	private static final int FEATURE_GEOMETRY = 4;
+	// Value
+	private static final int VALUE_STRING = 1;
+	private static final int VALUE_FLOAT = 2;
+	private static final int VALUE_DOUBLE = 3;
+	private static final int VALUE_UINT = 5;
+	private static final int VALUE_SINT = 6;
+	private static final int VALUE_BOOL = 7;
+
+	private int extent;
+	private MercatorTileImage tile;
+
+	private ProtobufWriter tileBuffer = new ProtobufWriter(16384);
+	private ProtobufWriter layerHead = new ProtobufWriter(256);
+	private ProtobufWriter features = new ProtobufWriter(16384);
+	private ProtobufWriter layerTail = new ProtobufWriter(4096);
+
+	private String layerName = null;
+	private Map<String, Integer> keys = new HashMap<>();
+	private List<String> keyList = new ArrayList<>();
+	private Map<Object, Integer> values = new HashMap<>();
+	private List<Object> valueList = new ArrayList<>();
+
+	private boolean inFeature = false;
+	private boolean hasId;
+	private long id;
+	private GeometryType type;
+	private int[] tags = new int[16];
+	private int numTags;
+	private int[] geometry = new int[256];
+	private int geometrySize;
+	private int cursorX;
+	private int cursorY;
+	// position of the MoveTo command of point features in the geometry
+	private int pointCommand;
+	// whether the last exterior ring has been encoded
+	private boolean exteriorValid;
+
+	// projected coordinates
+	private int[] px = new int[256];
+	private int[] py = new int[256];
+
+	/**
+	 * Create an encoder for tiles with the specified extent.
+	 *
+	 * @param extent
+	 *            the size of tiles in integer units, usually 4096.
+	 */
+	public MvtEncoder(int extent)
+	{
+		this.extent = extent;
+	}
+
+	/**
+	 * @return the extent of the encoded tiles.
+	 */
+	public int getExtent()
+	{
+		return extent;
+	}
+
+	/**
+	 * Discard all data and start encoding the specified tile.
+	 *
+	 * @param tile
+	 *            the tile to encode, used for projecting features.
+	 */
+	public void reset(MercatorTileImage tile)
+	{
+		this.tile = tile;
+		tileBuffer.reset();
+		layerName = null;
+		inFeature = false;
+	}
+
+	/**
+	 * Start a new layer.
+	 *
+	 * @param name
+	 *            the name of the layer.
+	 * @throws IllegalStateException
+	 *             if no tile has been set or the previous layer has not been
+	 *             ended.
+	 */
+	public void beginLayer(String name)
+	{
+		if (tile == null) {
+			throw new IllegalStateException("no tile set");
+		}
+		if (layerName != null) {
+			throw new IllegalStateException("layer not ended");
+		}
+		layerName = name;
+		features.reset();
+		keys.clear();
+		keyList.clear();
+		values.clear();
+		valueList.clear();
+	}
+
+	/**
+	 * Finish the current layer and append it to the tile.
+	 *
+	 * @throws IllegalStateException
+	 *             if there is no current layer or a feature has not been
+	 *             ended.
+	 */
+	public void endLayer()
+	{
+		if (layerName == null) {
+			throw new IllegalStateException("no layer");
+		}
+		if (inFeature) {
+			throw new IllegalStateException("feature not ended");
+		}
+
+		layerHead.reset();
+		layerHead.writeTag(LAYER_VERSION, ProtobufWriter.VARINT);
+		layerHead.writeVarint(2);
+		layerHead.writeString(LAYER_NAME, layerName);
+
+		layerTail.reset();
+		for (String key : keyList) {
+			layerTail.writeString(LAYER_KEYS, key);
+		}
+		for (Object value : valueList) {
+			writeValue(value);
+		}
+		layerTail.writeTag(LAYER_EXTENT, ProtobufWriter.VARINT);
+		layerTail.writeVarint(extent);
+
+		int length = layerHead.size() + features.size() + layerTail.size();
+		tileBuffer.writeTag(TILE_LAYERS, ProtobufWriter.LENGTH_DELIMITED);
+		tileBuffer.writeVarint(length);
+		tileBuffer.write(layerHead);
+		tileBuffer.write(features);
+		tileBuffer.write(layerTail);
+
+		layerName = null;
+	}
+
+	private void writeValue(Object value)
+	{
+		ProtobufWriter w = layerTail;
+		int size;
+		if (value instanceof String) {
+			String string = (String) value;
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			size = ProtobufWriter.sizeOfTag(VALUE_STRING)
+					+ ProtobufWriter.sizeOfVarint(bytes.length) + bytes.length;
+			w.writeTag(LAYER_VALUES, ProtobufWriter.LENGTH_DELIMITED);
+			w.writeVarint(size);
+			w.writeTag(VALUE_STRING, ProtobufWriter.LENGTH_DELIMITED);
+			w.writeVarint(bytes.length);
+			w.writeBytes(bytes, 0, bytes.length);
+		} else if (value instanceof Long) {
+			long v = (Long) value;
+			w.writeTag(LAYER_VALUES, ProtobufWriter.LENGTH_DELIMITED);
+			if (v >= 0) {
+				size = ProtobufWriter.sizeOfTag(VALUE_UINT)
+						+ ProtobufWriter.sizeOfVarint(v);
+				w.writeVarint(size);
+				w.writeTag(VALUE_UINT, ProtobufWriter.VARINT);
+				w.writeVarint(v);
+			} else {
+				long zigzag = (v << 1) ^ (v >> 63);
+				size = ProtobufWriter.sizeOfTag(VALUE_SINT)
+						+ ProtobufWriter.sizeOfVarint(zigzag);
+				w.writeVarint(size);
+				w.writeTag(VALUE_SINT, ProtobufWriter.VARINT);
+				w.writeVarint(zigzag);
+			}
+		} else if (value instanceof Double) {
+			w.writeTag(LAYER_VALUES, ProtobufWriter.LENGTH_DELIMITED);
+			w.writeVarint(ProtobufWriter.sizeOfTag(VALUE_DOUBLE) + 8);
+			w.writeTag(VALUE_DOUBLE, ProtobufWriter.FIXED64);
+			w.writeFixed64(Double.doubleToLongBits((Double) value));
+		} else if (value instanceof Float) {
+			w.writeTag(LAYER_VALUES, ProtobufWriter.LENGTH_DELIMITED);
+			w.writeVarint(ProtobufWriter.sizeOfTag(VALUE_FLOAT) + 4);
+			w.writeTag(VALUE_FLOAT, ProtobufWriter.FIXED32);
+			w.writeFixed32(Float.floatToIntBits((Float) value));
+		} else {
+			boolean v = (Boolean) value;
+			w.writeTag(LAYER_VALUES, ProtobufWriter.LENGTH_DELIMITED);
+			w.writeVarint(ProtobufWriter.sizeOfTag(VALUE_BOOL) + 1);
+			w.writeTag(VALUE_BOOL, ProtobufWriter.VARINT);
+			w.writeVarint(v ? 1 : 0);
+		}
+	}
+
+	/**
+	 * Start a new feature without id in the current layer.
+	 */
+	public void beginFeature()
+	{
+		beginFeature(false, 0);
+	}
+
+	/**
+	 * Start a new feature with an id in the current layer.
+	 *
+	 * @param id
+	 *            the id of the feature.
+	 */
+	public void beginFeature(long id)
+	{
+		beginFeature(true, id);
+	}
+
+	private void beginFeature(boolean hasId, long id)
+	{
+		if (layerName == null) {
+			throw new IllegalStateException("no layer");
+		}
+		if (inFeature) {
+			throw new IllegalStateException("feature not ended");
+		}
+		inFeature = true;
+		this.hasId = hasId;
+		this.id = id;
+		type = null;
+		numTags = 0;
+		geometrySize = 0;
+		cursorX = 0;
+		cursorY = 0;
+		exteriorValid = false;
+	}
+
+	/**
+	 * Add a tag with a string value to the current feature.
+	 *
+	 * @param key
+	 *            the key.
+	 * @param value
+	 *            the value.
+	 */
+	public void addTag(String key, String value)
+	{
+		addTagObject(key, value);
+	}
+
+	/**
+	 * Add a tag with an integer value to the current feature.
+	 *
+	 * @param key
+	 *            the key.
+	 * @param value
+	 *            the value.
+	 */
+	public void addTag(String key, long value)
+	{
+		addTagObject(key, value);
+	}
+
+	/**
+	 * Add a tag with a floating point value to the current feature.
+	 *
+	 * @param key
+	 *            the key.
+	 * @param value
+	 *            the value.
+	 */
+	public void addTag(String key, double value)
+	{
+		addTagObject(key, value);
+	}
+
+	/**
+	 * Add a tag with a single precision floating point value to the current
+	 * feature.
+	 *
+	 * @param key
+	 *            the key.
+	 * @param value
+	 *            the value.
+	 */
+	public void addTag(String key, float value)
+	{
+		addTagObject(key, value);
+	}
+
+	/**
+	 * Add a tag with a boolean value to the current feature.
+	 *
+	 * @param key
+	 *            the key.
+	 * @param value
+	 *            the value.
+	 */
+	public void addTag(String key, boolean value)
+	{
+		addTagObject(key, value);
+	}
+
+	private void addTagObject(String key, Object value)
+	{
+		if (!inFeature) {
+			throw new IllegalStateException("no feature");
+		}
+		Integer k = keys.get(key);
+		if (k == null) {
+			k = keyList.size();
+			keys.put(key, k);
+			keyList.add(key);
+		}
+		Integer v = values.get(value);
+		if (v == null) {
+			v = valueList.size();
+			values.put(value, v);
+			valueList.add(value);
+		}
+		if (numTags + 2 > tags.length) {
+			int[] t = new int[tags.length * 2];
+			System.arraycopy(tags, 0, t, 0, numTags);
+			tags = t;
+		}
+		tags[numTags++] = k;
+		tags[numTags++] = v;
+	}
+
+	/**
+	 * Add points to the current feature, which needs to be a point feature.
+	 *
+	 * @param lons
+	 *            the longitudes.
+	 * @param lats
+	 *            the latitudes.
+	 * @param offset
+	 *            the index of the first point.
+	 * @param length
+	 *            the number of points.
+	 */
+	public void addPoints(double[] lons, double[] lats, int offset,
+			int length)
+	{
+		setType(GeometryType.POINT);
+		if (length == 0) {
+			return;
+		}
+		project(lons, lats, offset, length);
+		// all points share a single MoveTo command
+		if (geometrySize == 0) {
+			pointCommand = 0;
+			addGeometry(command(CMD_MOVE_TO, 0));
+		}
+		for (int i = 0; i < length; i++) {
+			addPoint(px[i], py[i]);
+		}
+		geometry[pointCommand] = command(CMD_MOVE_TO,
+				(geometry[pointCommand] >>> 3) + length);
+	}
+
+	/**
+	 * Add a line string to the current feature, which needs to be a line
+	 * string feature.
+	 *
+	 * @param lons
+	 *            the longitudes.
+	 * @param lats
+	 *            the latitudes.
+	 * @param offset
+	 *            the index of the first point.
+	 * @param length
+	 *            the number of points.
+	 */
+	public void addLineString(double[] lons, double[] lats, int offset,
+			int length)
+	{
+		setType(GeometryType.LINESTRING);
+		if (length == 0) {
+			return;
+		}
+		project(lons, lats, offset, length);
+		int n = removeDuplicates(length);
+		if (n < 2) {
+			return;
+		}
+		addGeometry(command(CMD_MOVE_TO, 1));
+		addPoint(px[0], py[0]);
+		addGeometry(command(CMD_LINE_TO, n - 1));
+		for (int i = 1; i < n; i++) {
+			addPoint(px[i], py[i]);
+		}
+	}
+
+	/**
+	 * Add a polygon ring to the current feature, which needs to be a polygon
+	 * feature. Each exterior ring starts a new polygon, followed by the
+	 * interior rings of that polygon. The ring may or may not repeat the
+	 * first point at the end. Rings are reoriented as required by the
+	 * specification, independent of the orientation of the input.
+	 *
+	 * @param lons
+	 *            the longitudes.
+	 * @param lats
+	 *            the latitudes.
+	 * @param offset
+	 *            the index of the first point.
+	 * @param length
+	 *            the number of points.
+	 * @param exterior
+	 *            whether this is an exterior ring.
+	 */
+	public void addRing(double[] lons, double[] lats, int offset, int length,
+			boolean exterior)
+	{
+		setType(GeometryType.POLYGON);
+		if (!exterior && !exteriorValid) {
+			// the polygon this ring belongs to has been dropped
+			return;
+		}
+		if (exterior) {
+			exteriorValid = false;
+		}
+		if (length == 0) {
+			return;
+		}
+		project(lons, lats, offset, length);
+		int n = removeDuplicates(length);
+		if (n > 1 && px[0] == px[n - 1] && py[0] == py[n - 1]) {
+			n--;
+		}
+		if (n < 3) {
+			return;
+		}
+		long area = 0;
+		for (int i = 0, j = n - 1; i < n; j = i++) {
+			area += (long) px[j] * py[i] - (long) px[i] * py[j];
+		}
+		if (area == 0) {
+			return;
+		}
+		// exterior rings need positive area in tile coordinates, i.e.
+		// clockwise orientation with the y axis pointing down
+		boolean reverse = exterior ? area < 0 : area > 0;
+
+		addGeometry(command(CMD_MOVE_TO, 1));
+		int first = reverse ? n - 1 : 0;
+		addPoint(px[first], py[first]);
+		addGeometry(command(CMD_LINE_TO, n - 1));
+		if (reverse) {
+			for (int i = n - 2; i >= 0; i--) {
+				addPoint(px[i], py[i]);
+			}
+		} else {
+			for (int i = 1; i < n; i++) {
+				addPoint(px[i], py[i]);
+			}
+		}
+		addGeometry(command(CMD_CLOSE_PATH, 1));
+		if (exterior) {
+			exteriorValid = true;
+		}
+	}
+
+	/**
+	 * Finish the current feature and append it to the current layer. Features
+	 * without geometry are dropped.
+	 */
+	public void endFeature()
+	{
+		if (!inFeature) {
+			throw new IllegalStateException("no feature");
+		}
+		inFeature = false;
+		if (geometrySize == 0) {
+			return;
+		}
+
+		int length = 0;
+		if (hasId) {
+			length += ProtobufWriter.sizeOfTag(FEATURE_ID)
+					+ ProtobufWriter.sizeOfVarint(id);
+		}
+		if (numTags > 0) {
+			length += ProtobufWriter.sizeOfPacked(FEATURE_TAGS, tags,
+					numTags);
+		}
+		length += ProtobufWriter.sizeOfTag(FEATURE_TYPE) + 1;
+		length += ProtobufWriter.sizeOfPacked(FEATURE_GEOMETRY, geometry,
+				geometrySize);
+
+		ProtobufWriter w = features;
+		w.writeTag(LAYER_FEATURES, ProtobufWriter.LENGTH_DELIMITED);
+		w.writeVarint(length);
+		if (hasId) {
+			w.writeTag(FEATURE_ID, ProtobufWriter.VARINT);
+			w.writeVarint(id);
+		}
+		if (numTags > 0) {
+			w.writePacked(FEATURE_TAGS, tags, numTags);
+		}
+		w.writeTag(FEATURE_TYPE, ProtobufWriter.VARINT);
+		w.writeVarint(type.getValue());
+		w.writePacked(FEATURE_GEOMETRY, geometry, geometrySize);
+	}
+
+	/**
+	 * @return the number of bytes of the encoded tile so far.
+	 */
+	public int size()
+	{
+		return tileBuffer.size();
+	}
+
+	/**
+	 * @return a copy of the encoded tile.
+	 */
+	public byte[] toByteArray()
+	{
+		return tileBuffer.toByteArray();
+	}
+
+	/**
+	 * Write the encoded tile to a stream.
+	 *
+	 * @param out
+	 *            the stream to write to.
+	 * @throws IOException
+	 *             on failure while writing.
+	 */
+	public void writeTo(OutputStream out) throws IOException
+	{
+		tileBuffer.writeTo(out);
+	}
+
+	private void setType(GeometryType type)
+	{
+		if (!inFeature) {
+			throw new IllegalStateException("no feature");
+		}
+		if (this.type == null) {
+			this.type = type;
+		} else if (this.type != type) {
+			throw new IllegalStateException(
+					"feature has geometry type " + this.type);
+		}
+	}
+
+	private void project(double[] lons, double[] lats, int offset, int length)
+	{
+		if (px.length < length) {
+			int size = Math.max(length, px.length * 2);
+			px = new int[size];
+			py = new int[size];
+		}
+		tile.transform(lons, lats, offset, px, py, 0, length, extent);
+	}
+
+	/*
+	 * Remove consecutive duplicate points from the projected coordinates.
+	 */
+	private int removeDuplicates(int length)
+	{
+		int n = 1;
+		for (int i = 1; i < length; i++) {
+			if (px[i] == px[n - 1] && py[i] == py[n - 1]) {
+				continue;
+			}
+			px[n] = px[i];
+			py[n] = py[i];
+			n++;
+		}
+		return n;
+	}
+
+	private void addPoint(int x, int y)
+	{
+		addGeometry(zigzag(x - cursorX));
+		addGeometry(zigzag(y - cursorY));
+		cursorX = x;
+		cursorY = y;
+	}
+
+	private void addGeometry(int value)
+	{
+		if (geometrySize == geometry.length) {
+			int[] g = new int[geometry.length * 2];
+			System.arraycopy(geometry, 0, g, 0, geometrySize);
+			geometry = g;
+		}
+		geometry[geometrySize++] = value;
+	}
+
+	private static int command(int id, int count)
+	{
+		return (id & 0x7) | (count << 3);
+	}
+
+	private static int zigzag(int value)
+	{
+		return (value << 1) ^ (value >> 31);
+	}
+
+}
@@ -0,0 +1,191 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.mvt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A minimal writer for the protobuf wire format that appends to a growable
+ * byte array, which is kept when the writer is reset.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class ProtobufWriter
+{
+
+	static final int VARINT = 0;
+	static final int FIXED64 = 1;
+	static final int LENGTH_DELIMITED = 2;
+	static final int FIXED32 = 5;
+
+	private byte[] buffer;
+	private int size = 0;
+
+	ProtobufWriter(int capacity)
+	{
+		buffer = new byte[capacity];
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	void reset()
+	{
+		size = 0;
+	}
+
+	byte[] toByteArray()
+	{
+		byte[] bytes = new byte[size];
+		System.arraycopy(buffer, 0, bytes, 0, size);
+		return bytes;
+	}
+
+	void writeTo(OutputStream out) throws IOException
+	{
+		out.write(buffer, 0, size);
+	}
+
+	void writeTag(int field, int wireType)
+	{
+		writeVarint(field << 3 | wireType);
+	}
+
+	void writeVarint(long value)
+	{
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[size++] = (byte) value;
+	}
+
+	/**
+	 * Write an int value as unsigned 32 bit varint.
+	 */
+	void writeUnsigned(int value)
+	{
+		writeVarint(value & 0xFFFFFFFFL);
+	}
+
+	void writeFixed64(long value)
+	{
+		ensureCapacity(8);
+		for (int i = 0; i < 8; i++) {
+			buffer[size++] = (byte) (value >>> (i * 8));
+		}
+	}
+
+	void writeFixed32(int value)
+	{
+		ensureCapacity(4);
+		for (int i = 0; i < 4; i++) {
+			buffer[size++] = (byte) (value >>> (i * 8));
+		}
+	}
+
+	void writeBytes(byte[] bytes, int offset, int length)
+	{
+		ensureCapacity(length);
+		System.arraycopy(bytes, offset, buffer, size, length);
+		size += length;
+	}
+
+	void writeString(int field, String value)
+	{
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeTag(field, LENGTH_DELIMITED);
+		writeVarint(bytes.length);
+		writeBytes(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Append the content of another writer.
+	 */
+	void write(ProtobufWriter other)
+	{
+		writeBytes(other.buffer, 0, other.size);
+	}
+
+	/**
+	 * Write the values at indices [0, length) as packed repeated uint32
+	 * field.
+	 */
+	void writePacked(int field, int[] values, int length)
+	{
+		int bytes = 0;
+		for (int i = 0; i < length; i++) {
+			bytes += sizeOfUnsigned(values[i]);
+		}
+		writeTag(field, LENGTH_DELIMITED);
+		writeVarint(bytes);
+		ensureCapacity(bytes);
+		for (int i = 0; i < length; i++) {
+			writeUnsigned(values[i]);
+		}
+	}
+
+	static int sizeOfVarint(long value)
+	{
+		int bytes = 1;
+		while ((value & ~0x7FL) != 0) {
+			value >>>= 7;
+			bytes++;
+		}
+		return bytes;
+	}
+
+	static int sizeOfUnsigned(int value)
+	{
+		return sizeOfVarint(value & 0xFFFFFFFFL);
+	}
+
+	static int sizeOfTag(int field)
+	{
+		return sizeOfVarint(field << 3);
+	}
+
+	/**
+	 * The size of a packed repeated uint32 field, including tag and length.
+	 */
+	static int sizeOfPacked(int field, int[] values, int length)
+	{
+		int bytes = 0;
+		for (int i = 0; i < length; i++) {
+			bytes += sizeOfUnsigned(values[i]);
+		}
+		return sizeOfTag(field) + sizeOfVarint(bytes) + bytes;
+	}
+
+	private void ensureCapacity(int bytes)
+	{
+		if (size + bytes <= buffer.length) {
+			return;
+		}
+		int capacity = Math.max(size + bytes, buffer.length * 2);
+		byte[] b = new byte[capacity];
+		System.arraycopy(buffer, 0, b, 0, size);
+		buffer = b;
+	}
+
+}
@@ -0,0 +1,56 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.pack;
+
+/**
+ * Constants describing the layout of tile pack files. All numbers are stored
+ * in big-endian byte order.
+ * 
+ * <pre>
+ * header:
+ *   magic          8 bytes  "TILEPACK"
+ *   version        int
+ *   number of zoom levels n
+ *                  int
+ *   max tile size  int      the length of the largest tile in bytes
+ *   reserved       int
+ * n zoom level entries:
+ *   zoom, minX, minY, maxX, maxY
+ *                  5 ints   the range of tiles in the index
+ *   index offset   long     the position of the index in the file
+ * n indexes, one entry for each tile of the range in row-major order:
+ *   offset         long     the position of the tile data in the file
+ *   length         int      the length of the tile data, 0 if missing
+ * data region
+ * </pre>
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+class PackFormat
+{
+
+	static final long MAGIC = 0x54494C455041434BL; // "TILEPACK"
+	static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 8 + 4 * 4;
+	static final int ZOOM_ENTRY_SIZE = 5 * 4 + 8;
+	static final int INDEX_ENTRY_SIZE = 8 + 4;
+
+	static final int POSITION_MAX_TILE_SIZE = 16;
+
+}
@@ -0,0 +1,245 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.pack;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.topobyte.mercator.image.MercatorTileImage;
+import de.topobyte.mercator.image.TileRange;
+
+/**
+ * Reads tiles from a pack file created by <code>{@link TilePackWriter}</code>.
+ *
+ * The file is memory-mapped, so that looking up a tile is an index lookup and
+ * the tile data is returned as a slice of the mapped memory without copying and
+ * without system calls. Since a single mapping is limited to 2 GB, the file is
+ * mapped in chunks of 1 GB that overlap by the size of the largest tile, which
+ * guarantees that each tile and each index entry lies entirely within one
+ * chunk.
+ *
+ * This class is thread-safe.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TilePackReader implements Closeable
+{
+
+	private static final int CHUNK_BITS = 30;
+	private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+	private FileChannel channel;
+	private MappedByteBuffer[] chunks;
+
+	private TileRange[] ranges;
+	private long[] indexOffsets;
+	private int maxTileSize;
+
+	/**
+	 * Open a pack file.
+	 *
+	 * @param file
+	 *            the file to read.
+	 * @throws IOException
+	 *             if the file cannot be read or is not a tile pack.
+	 */
+	public TilePackReader(Path file) throws IOException
+	{
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			readHeader();
+			map();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private void readHeader() throws IOException
+	{
+		ByteBuffer header = read(0, PackFormat.HEADER_SIZE);
+		if (header.getLong() != PackFormat.MAGIC) {
+			throw new IOException("not a tile pack");
+		}
+		int version = header.getInt();
+		if (version != PackFormat.VERSION) {
+			throw new IOException("unsupported version: " + version);
+		}
+		int n = header.getInt();
+		maxTileSize = header.getInt();
+
+		ranges = new TileRange[n];
+		indexOffsets = new long[n];
+		ByteBuffer entries = read(PackFormat.HEADER_SIZE,
+				n * PackFormat.ZOOM_ENTRY_SIZE);
+		for (int i = 0; i < n; i++) {
+			int zoom = entries.getInt();
+			int minX = entries.getInt();
+			int minY = entries.getInt();
+			int maxX = entries.getInt();
+			int maxY = entries.getInt();
+			ranges[i] = new TileRange(zoom, minX, minY, maxX, maxY);
+			indexOffsets[i] = entries.getLong();
+		}
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("unexpected end of file");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private void map() throws IOException
+	{
+		long size = channel.size();
+		long overlap = Math.max(maxTileSize, PackFormat.INDEX_ENTRY_SIZE);
+		int n = (int) ((size + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+		chunks = new MappedByteBuffer[n];
+		for (int i = 0; i < n; i++) {
+			long start = (long) i << CHUNK_BITS;
+			long length = Math.min(CHUNK_SIZE + overlap, size - start);
+			chunks[i] = channel.map(MapMode.READ_ONLY, start, length);
+		}
+	}
+
+	/*
+	 * Get a view of the specified region, which needs to be at most as long
+	 * as the chunk overlap.
+	 */
+	private ByteBuffer view(long position, int length)
+	{
+		ByteBuffer view = chunks[(int) (position >>> CHUNK_BITS)].duplicate();
+		int offset = (int) (position & (CHUNK_SIZE - 1));
+		view.limit(offset + length);
+		view.position(offset);
+		return view;
+	}
+
+	/**
+	 * Get the data of a tile.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param x
+	 *            the x coordinate of the tile.
+	 * @param y
+	 *            the y coordinate of the tile.
+	 * @return a read-only buffer with the tile data between position and
+	 *         limit or null if the tile is not in the pack.
+	 */
+	public ByteBuffer get(int zoom, int x, int y)
+	{
+		for (int i = 0; i < ranges.length; i++) {
+			TileRange range = ranges[i];
+			if (range.getZoom() != zoom || !range.contains(x, y)) {
+				continue;
+			}
+			long n = (long) (y - range.getMinY()) * range.getWidth()
+					+ (x - range.getMinX());
+			ByteBuffer entry = view(
+					indexOffsets[i] + n * PackFormat.INDEX_ENTRY_SIZE,
+					PackFormat.INDEX_ENTRY_SIZE);
+			long position = entry.getLong();
+			int length = entry.getInt();
+			if (length == 0) {
+				return null;
+			}
+			return view(position, length).slice().asReadOnlyBuffer();
+		}
+		return null;
+	}
+
+	/**
+	 * Get the data of a tile.
+	 *
+	 * @param tile
+	 *            the tile.
+	 * @return a read-only buffer with the tile data or null if the tile is not
+	 *         in the pack.
+	 */
+	public ByteBuffer get(MercatorTileImage tile)
+	{
+		return get(tile.getTileZoom(), tile.getTileX(), tile.getTileY());
+	}
+
+	/**
+	 * Get a copy of the data of a tile.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param x
+	 *            the x coordinate of the tile.
+	 * @param y
+	 *            the y coordinate of the tile.
+	 * @return the tile data or null if the tile is not in the pack.
+	 */
+	public byte[] getBytes(int zoom, int x, int y)
+	{
+		ByteBuffer buffer = get(zoom, x, y);
+		if (buffer == null) {
+			return null;
+		}
+		byte[] data = new byte[buffer.remaining()];
+		buffer.get(data);
+		return data;
+	}
+
+	/**
+	 * @return the ranges of tiles the pack can hold.
+	 */
+	public List<TileRange> getRanges()
+	{
+		List<TileRange> list = new ArrayList<>();
+		Collections.addAll(list, ranges);
+		return list;
+	}
+
+	/**
+	 * @return the length of the largest tile in bytes.
+	 */
+	public int getMaxTileSize()
+	{
+		return maxTileSize;
+	}
+
+	/**
+	 * Close the file. Buffers obtained from this reader must not be used
+	 * afterwards.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+}
@@ -0,0 +1,277 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.pack;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.topobyte.adt.geo.BBox;
+import de.topobyte.mercator.image.TileRange;
+import de.topobyte.mercator.image.io.TileSink;
+
+/**
+ * Writes tiles to a pack file (see <code>{@link TilePackReader}</code> for
+ * reading). The ranges of tiles the file can hold are fixed at construction
+ * time, which determines the size of the index. Tiles can then be added in any
+ * order and from multiple threads concurrently; their data is appended to the
+ * data region and their index entries are written in place.
+ *
+ * Tiles with identical content are stored only once: the writer remembers the
+ * content hashes of recently written tiles and lets the index entries of
+ * repeated tiles point to the data written before. Since identical tiles in a
+ * pyramid are mostly repeated often, like empty sea tiles, a bounded number of
+ * recent hashes suffices to catch almost all of them.
+ *
+ * A tile pack needs to be closed after all tiles have been added for the
+ * header to be complete.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TilePackWriter implements TileSink, Closeable
+{
+
+	private static final int RECENT_TILES = 4096;
+
+	private FileChannel channel;
+	private List<TileRange> ranges;
+	private long[] indexOffsets;
+
+	private long dataEnd;
+	private int maxTileSize = 0;
+
+	private boolean deduplicate = true;
+	private long duplicates = 0;
+	// offsets of recently written tiles by content hash
+	private Map<ByteBuffer, Long> recent = new LinkedHashMap<ByteBuffer, Long>(
+			16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Long> eldest)
+		{
+			return size() > RECENT_TILES;
+		}
+
+	};
+
+	/**
+	 * Create a writer for all tiles covering a bounding box on a range of zoom
+	 * levels.
+	 *
+	 * @param file
+	 *            the file to write to. Existing files are overwritten.
+	 * @param bbox
+	 *            the area to cover.
+	 * @param minZoom
+	 *            the first zoom level.
+	 * @param maxZoom
+	 *            the last zoom level.
+	 * @throws IOException
+	 *             on failure while creating the file.
+	 */
+	public TilePackWriter(Path file, BBox bbox, int minZoom, int maxZoom)
+			throws IOException
+	{
+		this(file, ranges(bbox, minZoom, maxZoom));
+	}
+
+	private static List<TileRange> ranges(BBox bbox, int minZoom,
+			int maxZoom)
+	{
+		List<TileRange> ranges = new ArrayList<>();
+		for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+			ranges.add(TileRange.of(bbox, zoom));
+		}
+		return ranges;
+	}
+
+	/**
+	 * Create a writer for the specified ranges of tiles, with at most one
+	 * range per zoom level.
+	 *
+	 * @param file
+	 *            the file to write to. Existing files are overwritten.
+	 * @param ranges
+	 *            the ranges of tiles the file can hold.
+	 * @throws IOException
+	 *             on failure while creating the file.
+	 */
+	public TilePackWriter(Path file, List<TileRange> ranges)
+			throws IOException
+	{
+		this.ranges = new ArrayList<>(ranges);
+		indexOffsets = new long[ranges.size()];
+
+		int headerSize = PackFormat.HEADER_SIZE
+				+ ranges.size() * PackFormat.ZOOM_ENTRY_SIZE;
+		ByteBuffer header = ByteBuffer.allocate(headerSize);
+		header.putLong(PackFormat.MAGIC);
+		header.putInt(PackFormat.VERSION);
+		header.putInt(ranges.size());
+		header.putInt(0);
+		header.putInt(0);
+
+		long position = headerSize;
+		for (int i = 0; i < ranges.size(); i++) {
+			TileRange range = ranges.get(i);
+			indexOffsets[i] = position;
+			header.putInt(range.getZoom());
+			header.putInt(range.getMinX());
+			header.putInt(range.getMinY());
+			header.putInt(range.getMaxX());
+			header.putInt(range.getMaxY());
+			header.putLong(position);
+			position += range.size() * PackFormat.INDEX_ENTRY_SIZE;
+		}
+		dataEnd = position;
+
+		channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		header.flip();
+		write(header, 0);
+		// extend the file to cover the index, unwritten entries read as zero
+		if (dataEnd > headerSize) {
+			write(ByteBuffer.allocate(1), dataEnd - 1);
+		}
+	}
+
+	/**
+	 * Set whether to store tiles with identical content only once. The
+	 * default is true.
+	 *
+	 * @param deduplicate
+	 *            whether to deduplicate tiles.
+	 */
+	public void setDeduplicate(boolean deduplicate)
+	{
+		this.deduplicate = deduplicate;
+	}
+
+	/**
+	 * @return the number of tiles whose data has been shared with a tile
+	 *         written before.
+	 */
+	public synchronized long getDuplicates()
+	{
+		return duplicates;
+	}
+
+	/**
+	 * Add a tile. Empty tiles are treated as missing by the reader.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the tile is not contained in any of the ranges of this
+	 *             file.
+	 */
+	@Override
+	public void put(int zoom, int x, int y, byte[] data) throws IOException
+	{
+		long entry = indexEntry(zoom, x, y);
+		ByteBuffer hash = deduplicate ? hash(data) : null;
+
+		long position;
+		boolean duplicate = false;
+		synchronized (this) {
+			Long existing = hash == null ? null : recent.get(hash);
+			if (existing != null) {
+				position = existing;
+				duplicate = true;
+				duplicates++;
+			} else {
+				position = dataEnd;
+				dataEnd += data.length;
+				maxTileSize = Math.max(maxTileSize, data.length);
+				if (hash != null) {
+					recent.put(hash, position);
+				}
+			}
+		}
+
+		// positional writes of distinct regions can proceed concurrently
+		if (!duplicate) {
+			write(ByteBuffer.wrap(data), position);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(PackFormat.INDEX_ENTRY_SIZE);
+		buffer.putLong(position);
+		buffer.putInt(data.length);
+		buffer.flip();
+		write(buffer, entry);
+	}
+
+	private static ByteBuffer hash(byte[] data)
+	{
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			return ByteBuffer.wrap(digest.digest(data));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private long indexEntry(int zoom, int x, int y)
+	{
+		for (int i = 0; i < ranges.size(); i++) {
+			TileRange range = ranges.get(i);
+			if (range.getZoom() != zoom || !range.contains(x, y)) {
+				continue;
+			}
+			long n = (long) (y - range.getMinY()) * range.getWidth()
+					+ (x - range.getMinX());
+			return indexOffsets[i] + n * PackFormat.INDEX_ENTRY_SIZE;
+		}
+		throw new IllegalArgumentException(String.format(
+				"tile %d/%d/%d is not part of this pack", zoom, x, y));
+	}
+
+	private void write(ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Complete the header and close the file. Must not be called concurrently
+	 * with <code>{@link #put}</code>.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(4);
+			buffer.putInt(maxTileSize);
+			buffer.flip();
+			write(buffer, PackFormat.POSITION_MAX_TILE_SIZE);
+		} finally {
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,286 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.render;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import de.topobyte.mercator.image.MercatorTileImage;
+import de.topobyte.mercator.image.TileRange;
+
+/**
+ * A block of NxN tiles that is rendered as a single image and then split into
+ * individual tiles. Rendering metatiles amortizes the per-tile overhead of
+ * preparing the data to render and avoids artifacts at tile edges, like cut
+ * off labels.
+ *
+ * The number of tiles N per side needs to be a power of two. Metatiles are
+ * aligned to multiples of N, i.e. metatile (mx, my) consists of the tiles
+ * (mx * N + i, my * N + j) for i, j in [0, N). On zoom levels that have fewer
+ * than N tiles per side, a metatile covers the whole world.
+ *
+ * Since the metatile is aligned to the tile grid, its area is exactly the area
+ * of tile (mx, my) on zoom level zoom - log2(N), rendered with N times the
+ * tile size. This is the transformer that is passed to the renderer. As its
+ * zoom level differs from the zoom level of the tiles, the latter is passed to
+ * <code>{@link TileRenderer#render}</code> separately.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class MetaTile
+{
+
+	private int zoom;
+	private int metaX;
+	private int metaY;
+	private int size;
+	private int tileSize;
+
+	/**
+	 * Create a metatile.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tiles.
+	 * @param metaX
+	 *            the x coordinate of the metatile.
+	 * @param metaY
+	 *            the y coordinate of the metatile.
+	 * @param size
+	 *            the number of tiles per side, a power of two.
+	 * @param tileSize
+	 *            the width and height of tiles in pixels.
+	 * @throws IllegalArgumentException
+	 *             if size is not a power of two.
+	 */
+	public MetaTile(int zoom, int metaX, int metaY, int size, int tileSize)
+	{
+		if (size < 1 || Integer.bitCount(size) != 1) {
+			throw new IllegalArgumentException(
+					"size needs to be a power of two: " + size);
+		}
+		this.zoom = zoom;
+		this.metaX = metaX;
+		this.metaY = metaY;
+		this.size = Math.min(size, 1 << zoom);
+		this.tileSize = tileSize;
+	}
+
+	/**
+	 * Create the metatile that contains the specified tile.
+	 *
+	 * @param zoom
+	 *            the zoom level of the tile.
+	 * @param x
+	 *            the x coordinate of the tile.
+	 * @param y
+	 *            the y coordinate of the tile.
+	 * @param size
+	 *            the number of tiles per side, a power of two.
+	 * @param tileSize
+	 *            the width and height of tiles in pixels.
+	 * @return the metatile.
+	 */
+	public static MetaTile containing(int zoom, int x, int y, int size,
+			int tileSize)
+	{
+		int n = Math.min(size, 1 << zoom);
+		return new MetaTile(zoom, x / n, y / n, size, tileSize);
+	}
+
+	/**
+	 * Get the range of metatiles that contains all tiles of the specified
+	 * range.
+	 *
+	 * @param range
+	 *            a range of tiles.
+	 * @param size
+	 *            the number of tiles per side of the metatiles, a power of
+	 *            two.
+	 * @return a range in metatile coordinates.
+	 */
+	public static TileRange metaTileRange(TileRange range, int size)
+	{
+		int n = Math.min(size, 1 << range.getZoom());
+		return new TileRange(range.getZoom(), range.getMinX() / n,
+				range.getMinY() / n, range.getMaxX() / n, range.getMaxY() / n);
+	}
+
+	/**
+	 * @return the zoom level of the tiles.
+	 */
+	public int getZoom()
+	{
+		return zoom;
+	}
+
+	/**
+	 * @return the x coordinate of this metatile.
+	 */
+	public int getMetaX()
+	{
+		return metaX;
+	}
+
+	/**
+	 * @return the y coordinate of this metatile.
+	 */
+	public int getMetaY()
+	{
+		return metaY;
+	}
+
+	/**
+	 * Get the number of tiles per side. This may be smaller than the value
+	 * requested at construction time on low zoom levels.
+	 *
+	 * @return the number of tiles per side.
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * @return the width and height of tiles in pixels.
+	 */
+	public int getTileSize()
+	{
+		return tileSize;
+	}
+
+	/**
+	 * @return the width and height of the whole metatile in pixels.
+	 */
+	public int getPixelSize()
+	{
+		return size * tileSize;
+	}
+
+	/**
+	 * @return the range of tiles this metatile consists of.
+	 */
+	public TileRange getTiles()
+	{
+		return new TileRange(zoom, metaX * size, metaY * size,
+				metaX * size + size - 1, metaY * size + size - 1);
+	}
+
+	/**
+	 * Create a transformer for the area of the whole metatile.
+	 *
+	 * @return a transformer that maps lon/lat coordinates to the pixels of the
+	 *         metatile.
+	 */
+	public MercatorTileImage createTransformer()
+	{
+		int levels = Integer.numberOfTrailingZeros(size);
+		return new MercatorTileImage(zoom - levels, metaX, metaY,
+				getPixelSize(), getPixelSize());
+	}
+
+	/**
+	 * Render this metatile and pass all of its tiles to the output.
+	 *
+	 * @param renderer
+	 *            the renderer to render the metatile with.
+	 * @param canvas
+	 *            the image to render to. It needs to be at least as big as the
+	 *            metatile and may be reused for other metatiles afterwards.
+	 * @param output
+	 *            the output to pass the tiles to.
+	 * @throws IOException
+	 *             if the output fails.
+	 */
+	public void render(TileRenderer renderer, BufferedImage canvas,
+			TileOutput output) throws IOException
+	{
+		render(renderer, canvas, output, createTransformer(),
+				new MercatorTileImage(0, 0, 0, tileSize, tileSize), null);
+	}
+
+	/**
+	 * Render this metatile and pass its tiles to the output. This variant
+	 * reuses the specified transformer instances and only outputs the tiles
+	 * contained in the specified range.
+	 *
+	 * @param renderer
+	 *            the renderer to render the metatile with.
+	 * @param canvas
+	 *            the image to render to. It needs to be at least as big as the
+	 *            metatile and may be reused for other metatiles afterwards.
+	 * @param output
+	 *            the output to pass the tiles to.
+	 * @param metaTransformer
+	 *            a transformer to use for the metatile, will be reset to the
+	 *            area of the metatile. Its width and height need to match the
+	 *            pixel size of this metatile.
+	 * @param tile
+	 *            a transformer to use for the individual tiles, will be reset
+	 *            to each tile. Its width and height need to match the tile
+	 *            size.
+	 * @param range
+	 *            the range of tiles to output, or null for all tiles.
+	 * @return the number of tiles passed to the output.
+	 * @throws IOException
+	 *             if the output fails.
+	 */
+	public int render(TileRenderer renderer, BufferedImage canvas,
+			TileOutput output, MercatorTileImage metaTransformer,
+			MercatorTileImage tile, TileRange range) throws IOException
+	{
+		int levels = Integer.numberOfTrailingZeros(size);
+		metaTransformer.reset(zoom - levels, metaX, metaY);
+
+		int pixels = getPixelSize();
+		Graphics2D g = canvas.createGraphics();
+		try {
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(0, 0, pixels, pixels);
+			g.setComposite(AlphaComposite.SrcOver);
+			g.clipRect(0, 0, pixels, pixels);
+			renderer.render(g, metaTransformer, zoom);
+		} finally {
+			g.dispose();
+		}
+
+		int count = 0;
+		for (int j = 0; j < size; j++) {
+			for (int i = 0; i < size; i++) {
+				int x = metaX * size + i;
+				int y = metaY * size + j;
+				if (range != null && !range.contains(x, y)) {
+					continue;
+				}
+				tile.reset(zoom, x, y);
+				// a subimage shares the data of the canvas, nothing is copied
+				BufferedImage image = canvas;
+				if (size > 1 || canvas.getWidth() != tileSize
+						|| canvas.getHeight() != tileSize) {
+					image = canvas.getSubimage(i * tileSize, j * tileSize,
+							tileSize, tileSize);
+				}
+				output.output(tile, image);
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,40 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.render;
+
+/**
+ * Receives progress information during rendering.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public interface ProgressListener
+{
+
+	/**
+	 * Called whenever a batch of tiles has been completed. Implementations
+	 * are called concurrently from multiple threads and need to be
+	 * thread-safe. Calls from different threads may arrive out of order.
+	 *
+	 * @param done
+	 *            the number of tiles completed so far.
+	 * @param total
+	 *            the total number of tiles.
+	 */
+	public void progress(long done, long total);
+
+}
@@ -0,0 +1,268 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.render;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import de.topobyte.mercator.image.MercatorImage;
+import de.topobyte.mercator.image.MercatorTileImage;
+
+/**
+ * Composes images from existing tiles instead of rendering them from scratch.
+ *
+ * The image to compose needs to be aligned to the pixel grid of some tile zoom
+ * level, i.e. its world size needs to be the tile size times a power of two and
+ * its offset needs to be integral. Such images can be created with the factory
+ * methods of <code>{@link MercatorImage}</code>, for example
+ * <code>{@link MercatorImage#forCenter}</code>.
+ *
+ * Tiles are fetched from a <code>{@link TileSource}</code>, concurrently if an
+ * executor has been set, and copied to the target image in the calling thread.
+ * Tiles not available from the source are rendered with the fallback renderer,
+ * if one has been set, and left blank otherwise.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class StaticMapCompositor
+{
+
+	private TileSource source;
+	private int tileSize;
+
+	private ExecutorService executor = null;
+	private TileRenderer fallback = null;
+
+	/**
+	 * Create a compositor.
+	 *
+	 * @param source
+	 *            the source to fetch tiles from.
+	 * @param tileSize
+	 *            the width and height of the tiles provided by the source.
+	 */
+	public StaticMapCompositor(TileSource source, int tileSize)
+	{
+		this.source = source;
+		this.tileSize = tileSize;
+	}
+
+	/**
+	 * Set the executor to fetch tiles on. If no executor is set, tiles are
+	 * fetched sequentially in the calling thread.
+	 *
+	 * @param executor
+	 *            the executor to use.
+	 */
+	public void setExecutor(ExecutorService executor)
+	{
+		this.executor = executor;
+	}
+
+	/**
+	 * Set a renderer for tiles that are not available from the source.
+	 *
+	 * @param fallback
+	 *            the renderer to use.
+	 */
+	public void setFallback(TileRenderer fallback)
+	{
+		this.fallback = fallback;
+	}
+
+	/**
+	 * Get the zoom level whose pixel grid the image is aligned to.
+	 *
+	 * @param image
+	 *            the image to compose.
+	 * @return the zoom level.
+	 * @throws IllegalArgumentException
+	 *             if the image is not aligned to the pixel grid of any zoom
+	 *             level.
+	 */
+	public int getZoom(MercatorImage image)
+	{
+		double tiles = image.getWorldSize() / tileSize;
+		long n = (long) tiles;
+		if (n != tiles || n < 1 || Long.bitCount(n) != 1) {
+			throw new IllegalArgumentException(
+					"world size is not the tile size times a power of two: "
+							+ image.getWorldSize());
+		}
+		if (image.getImageSx() != Math.floor(image.getImageSx())
+				|| image.getImageSy() != Math.floor(image.getImageSy())) {
+			throw new IllegalArgumentException(
+					"image offset is not aligned to pixels: "
+							+ image.getImageSx() + ", " + image.getImageSy());
+		}
+		return Long.numberOfTrailingZeros(n);
+	}
+
+	/**
+	 * Compose a new image.
+	 *
+	 * @param image
+	 *            the image to compose.
+	 * @return an image of type <code>TYPE_INT_ARGB</code> with the size of the
+	 *         MercatorImage.
+	 * @throws IOException
+	 *             if fetching tiles fails.
+	 */
+	public BufferedImage compose(MercatorImage image) throws IOException
+	{
+		BufferedImage target = new BufferedImage(image.getWidth(),
+				image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = target.createGraphics();
+		try {
+			compose(image, g);
+		} finally {
+			g.dispose();
+		}
+		return target;
+	}
+
+	/**
+	 * Compose the image onto the specified graphics, whose origin corresponds
+	 * to the upper left corner of the MercatorImage.
+	 *
+	 * @param image
+	 *            the image to compose.
+	 * @param g
+	 *            the graphics to draw on.
+	 * @throws IOException
+	 *             if fetching tiles fails.
+	 * @throws IllegalArgumentException
+	 *             if the image is not aligned to the pixel grid of any zoom
+	 *             level.
+	 */
+	public void compose(MercatorImage image, Graphics2D g) throws IOException
+	{
+		int zoom = getZoom(image);
+		long sx = (long) image.getImageSx();
+		long sy = (long) image.getImageSy();
+		long n = 1L << zoom;
+
+		long minX = Math.floorDiv(sx, tileSize);
+		long minY = Math.floorDiv(sy, tileSize);
+		long maxX = Math.floorDiv(sx + image.getWidth() - 1, tileSize);
+		long maxY = Math.floorDiv(sy + image.getHeight() - 1, tileSize);
+		// there are no tiles beyond the poles, but longitudes wrap around
+		minY = Math.max(minY, 0);
+		maxY = Math.min(maxY, n - 1);
+
+		List<Placement> placements = new ArrayList<>();
+		for (long ty = minY; ty <= maxY; ty++) {
+			for (long tx = minX; tx <= maxX; tx++) {
+				int x = (int) Math.floorMod(tx, n);
+				MercatorTileImage tile = new MercatorTileImage(zoom, x,
+						(int) ty, tileSize, tileSize);
+				placements.add(new Placement(tile, (int) (tx * tileSize - sx),
+						(int) (ty * tileSize - sy)));
+			}
+		}
+
+		List<Future<BufferedImage>> futures = null;
+		if (executor != null) {
+			futures = new ArrayList<>(placements.size());
+			for (Placement placement : placements) {
+				futures.add(executor
+						.submit(() -> source.getTile(placement.tile)));
+			}
+		}
+
+		try {
+			for (int i = 0; i < placements.size(); i++) {
+				Placement placement = placements.get(i);
+				BufferedImage tileImage;
+				if (futures == null) {
+					tileImage = source.getTile(placement.tile);
+				} else {
+					tileImage = get(futures.get(i));
+				}
+				draw(g, placement, tileImage);
+			}
+		} finally {
+			if (futures != null) {
+				for (Future<BufferedImage> future : futures) {
+					future.cancel(true);
+				}
+			}
+		}
+	}
+
+	private void draw(Graphics2D g, Placement placement, BufferedImage image)
+	{
+		if (image != null) {
+			g.drawImage(image, placement.x, placement.y, null);
+			return;
+		}
+		if (fallback == null) {
+			return;
+		}
+		Graphics2D tg = (Graphics2D) g.create(placement.x, placement.y,
+				tileSize, tileSize);
+		try {
+			fallback.render(tg, placement.tile, placement.tile.getTileZoom());
+		} finally {
+			tg.dispose();
+		}
+	}
+
+	private static BufferedImage get(Future<BufferedImage> future)
+			throws IOException
+	{
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while fetching tiles", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	private static class Placement
+	{
+
+		final MercatorTileImage tile;
+		final int x;
+		final int y;
+
+		Placement(MercatorTileImage tile, int x, int y)
+		{
+			this.tile = tile;
+			this.x = x;
+			this.y = y;
+		}
+
+	}
+
+}
@@ -0,0 +1,50 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.render;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import de.topobyte.mercator.image.MercatorTileImage;
+
+/**
+ * Receives rendered tiles.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public interface TileOutput
+{
+
+	/**
+	 * Process a rendered tile. Implementations are called concurrently from
+	 * multiple threads and need to be thread-safe.
+	 *
+	 * @param tile
+	 *            the tile that has been rendered. The instance is reused for
+	 *            other tiles after this method returns.
+	 * @param image
+	 *            the rendered image. The image is reused for other tiles
+	 *            after this method returns, so it needs to be processed or
+	 *            copied before returning.
+	 * @throws IOException
+	 *             on failure while storing the tile.
+	 */
+	public void output(MercatorTileImage tile, BufferedImage image)
+			throws IOException;
+
+}
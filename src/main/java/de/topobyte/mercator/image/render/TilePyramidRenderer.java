@@ -0,0 +1,412 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.render;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.topobyte.adt.geo.BBox;
+import de.topobyte.mercator.image.MercatorTileImage;
+import de.topobyte.mercator.image.TileRange;
+
+/**
+ * Renders all tiles covering a bounding box on a range of zoom levels.
+ *
+ * Tiles are rendered in parallel on a ForkJoinPool. The tile ranges are split
+ * recursively into batches of tiles, so that idle workers can steal work from
+ * busy ones. Each worker thread keeps its own image and tile transformer and
+ * reuses them for all tiles it renders.
+ *
+ * Optionally, tiles can be rendered as metatiles of NxN tiles (see
+ * <code>{@link MetaTile}</code>). Only the tiles of a metatile that intersect
+ * the bounding box are passed to the output.
+ *
+ * If rendering or output fails for any tile, the remaining tiles are skipped
+ * and <code>{@link #render()}</code> waits for the tiles that are currently
+ * being rendered before it throws. This way, the output is never called after
+ * render() has returned, even with a pool set with
+ * <code>{@link #setPool(ForkJoinPool)}</code>.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public class TilePyramidRenderer
+{
+
+	private BBox bbox;
+	private int minZoom;
+	private int maxZoom;
+	private int tileSize;
+	private TileRenderer renderer;
+	private TileOutput output;
+
+	private ForkJoinPool pool = null;
+	private ProgressListener progressListener = null;
+	private int batchSize = 16;
+	private int metaTileSize = 1;
+	private int imageType = BufferedImage.TYPE_INT_ARGB;
+
+	private AtomicLong done = new AtomicLong();
+	private long total;
+
+	// the workers of the current run by thread. A map instead of a
+	// ThreadLocal, so that clearing it after a run releases the images even
+	// if the threads of a pool set with setPool() live on.
+	private ConcurrentHashMap<Thread, Worker> workers;
+
+	// set when a run fails or ends, so that tasks that are still queued or
+	// running stop before the next metatile
+	private volatile boolean stopped = false;
+	// the number of batches being rendered, guarded by the lock
+	private int active = 0;
+	private Object lock = new Object();
+
+	/**
+	 * Create a renderer for a tile pyramid.
+	 *
+	 * @param bbox
+	 *            the area to render.
+	 * @param minZoom
+	 *            the first zoom level to render.
+	 * @param maxZoom
+	 *            the last zoom level to render.
+	 * @param tileSize
+	 *            the width and height of tiles in pixels.
+	 * @param renderer
+	 *            the callback that renders the tiles.
+	 * @param output
+	 *            the callback that receives the rendered tiles.
+	 */
+	public TilePyramidRenderer(BBox bbox, int minZoom, int maxZoom,
+			int tileSize, TileRenderer renderer, TileOutput output)
+	{
+		this.bbox = bbox;
+		this.minZoom = minZoom;
+		this.maxZoom = maxZoom;
+		this.tileSize = tileSize;
+		this.renderer = renderer;
+		this.output = output;
+		workers = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Set the pool to render tiles on. If no pool is set, a new pool with one
+	 * thread per available processor is created for each call to
+	 * <code>{@link #render()}</code>.
+	 *
+	 * @param pool
+	 *            the pool to use.
+	 */
+	public void setPool(ForkJoinPool pool)
+	{
+		this.pool = pool;
+	}
+
+	/**
+	 * Set a listener to be notified about progress.
+	 *
+	 * @param progressListener
+	 *            the listener.
+	 */
+	public void setProgressListener(ProgressListener progressListener)
+	{
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Set the maximum number of tiles a worker renders without splitting the
+	 * work further. The default is 16.
+	 *
+	 * @param batchSize
+	 *            the number of tiles.
+	 */
+	public void setBatchSize(int batchSize)
+	{
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Set the number of tiles per side of the metatiles to render. Needs to be
+	 * a power of two. The default is 1, i.e. each tile is rendered on its
+	 * own.
+	 *
+	 * @param metaTileSize
+	 *            the number of tiles per side.
+	 * @throws IllegalArgumentException
+	 *             if metaTileSize is not a power of two.
+	 */
+	public void setMetaTileSize(int metaTileSize)
+	{
+		if (metaTileSize < 1 || Integer.bitCount(metaTileSize) != 1) {
+			throw new IllegalArgumentException(
+					"metatile size needs to be a power of two: "
+							+ metaTileSize);
+		}
+		this.metaTileSize = metaTileSize;
+	}
+
+	/**
+	 * Set the type of the images to render to, one of the
+	 * <code>BufferedImage.TYPE_*</code> constants. The default is
+	 * <code>TYPE_INT_ARGB</code>.
+	 *
+	 * @param imageType
+	 *            the image type.
+	 */
+	public void setImageType(int imageType)
+	{
+		this.imageType = imageType;
+	}
+
+	/**
+	 * @return the total number of tiles to render.
+	 */
+	public long getNumberOfTiles()
+	{
+		long count = 0;
+		for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+			count += TileRange.of(bbox, zoom).size();
+		}
+		return count;
+	}
+
+	/**
+	 * Render all tiles and wait for completion.
+	 *
+	 * @throws IOException
+	 *             if the output fails for any tile.
+	 */
+	public void render() throws IOException
+	{
+		total = getNumberOfTiles();
+		done.set(0);
+		stopped = false;
+
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+			TileRange range = TileRange.of(bbox, zoom);
+			TileRange metaRange = MetaTile.metaTileRange(range, metaTileSize);
+			tasks.add(new RenderTask(range, metaRange.getMinX(),
+					metaRange.getMinY(), metaRange.getMaxX(),
+					metaRange.getMaxY()));
+		}
+
+		ForkJoinPool pool = this.pool;
+		boolean ownPool = pool == null;
+		if (ownPool) {
+			pool = new ForkJoinPool();
+		}
+		try {
+			pool.invoke(new RecursiveAction() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute()
+				{
+					invokeAll(tasks);
+				}
+
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			// after a failure, sibling tasks may still be running
+			stopAndWait();
+			if (ownPool) {
+				pool.shutdown();
+				awaitTermination(pool);
+			}
+			workers.clear();
+		}
+	}
+
+	private boolean beginBatch()
+	{
+		synchronized (lock) {
+			if (stopped) {
+				return false;
+			}
+			active++;
+			return true;
+		}
+	}
+
+	private void endBatch()
+	{
+		synchronized (lock) {
+			if (--active == 0) {
+				lock.notifyAll();
+			}
+		}
+	}
+
+	private void stopAndWait()
+	{
+		boolean interrupted = false;
+		synchronized (lock) {
+			stopped = true;
+			while (active > 0) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void awaitTermination(ForkJoinPool pool)
+	{
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (pool.awaitTermination(1, TimeUnit.MINUTES)) {
+					break;
+				}
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private class RenderTask extends RecursiveAction
+	{
+
+		private static final long serialVersionUID = 1L;
+
+		// the tiles to render, the bounds of this task are metatiles
+		private TileRange range;
+		private int minX, minY, maxX, maxY;
+
+		RenderTask(TileRange range, int minX, int minY, int maxX, int maxY)
+		{
+			this.range = range;
+			this.minX = minX;
+			this.minY = minY;
+			this.maxX = maxX;
+			this.maxY = maxY;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (stopped) {
+				return;
+			}
+			int w = maxX - minX + 1;
+			int h = maxY - minY + 1;
+			int n = Math.min(metaTileSize, 1 << range.getZoom());
+			if ((long) w * h * n * n <= batchSize || w * h == 1) {
+				renderBatch();
+				return;
+			}
+			if (w >= h) {
+				int mid = minX + w / 2;
+				invokeAll(new RenderTask(range, minX, minY, mid - 1, maxY),
+						new RenderTask(range, mid, minY, maxX, maxY));
+			} else {
+				int mid = minY + h / 2;
+				invokeAll(new RenderTask(range, minX, minY, maxX, mid - 1),
+						new RenderTask(range, minX, mid, maxX, maxY));
+			}
+		}
+
+		private void renderBatch()
+		{
+			if (!beginBatch()) {
+				return;
+			}
+			int count = 0;
+			try {
+				Worker worker = workers.computeIfAbsent(
+						Thread.currentThread(), thread -> new Worker());
+				for (int y = minY; y <= maxY && !stopped; y++) {
+					for (int x = minX; x <= maxX && !stopped; x++) {
+						count += worker.render(range, x, y);
+					}
+				}
+			} catch (IOException e) {
+				stopped = true;
+				throw new UncheckedIOException(e);
+			} catch (RuntimeException | Error e) {
+				stopped = true;
+				throw e;
+			} finally {
+				endBatch();
+			}
+			long current = done.addAndGet(count);
+			if (progressListener != null) {
+				progressListener.progress(current, total);
+			}
+		}
+
+	}
+
+	/*
+	 * The state each worker thread keeps for rendering tiles.
+	 */
+	private class Worker
+	{
+
+		private int pixels = metaTileSize * tileSize;
+		private BufferedImage image = new BufferedImage(pixels, pixels,
+				imageType);
+		private MercatorTileImage tile = new MercatorTileImage(0, 0, 0,
+				tileSize, tileSize);
+		private MercatorTileImage meta = new MercatorTileImage(0, 0, 0,
+				pixels, pixels);
+
+		// on low zoom levels metatiles are smaller than configured
+		private BufferedImage smallImage = null;
+		private MercatorTileImage smallMeta = null;
+
+		int render(TileRange range, int metaX, int metaY) throws IOException
+		{
+			MetaTile metaTile = new MetaTile(range.getZoom(), metaX, metaY,
+					metaTileSize, tileSize);
+			int size = metaTile.getPixelSize();
+			if (size == pixels) {
+				return metaTile.render(renderer, image, output, meta, tile,
+						range);
+			}
+			if (smallImage == null || smallImage.getWidth() != size) {
+				smallImage = new BufferedImage(size, size, imageType);
+				smallMeta = new MercatorTileImage(0, 0, 0, size, size);
+			}
+			return metaTile.render(renderer, smallImage, output, smallMeta,
+					tile, range);
+		}
+
+	}
+
+}
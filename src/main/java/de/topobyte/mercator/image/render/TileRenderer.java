@@ -0,0 +1,56 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.render;
+
+import java.awt.Graphics2D;
+
+import de.topobyte.mercator.image.MercatorTileImage;
+
+/**
+ * Renders the content of a tile or of a block of tiles.
+ *
+ * When tiles are rendered as metatiles (see <code>{@link MetaTile}</code>),
+ * the area passed to the renderer covers multiple tiles and is described by
+ * the tile of a lower zoom level that contains all of them. The zoom level of
+ * the tiles that are being produced is therefore passed separately and should
+ * be used to select zoom dependent styles.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public interface TileRenderer
+{
+
+	/**
+	 * Render an area. Implementations are called concurrently from multiple
+	 * threads and need to be thread-safe.
+	 *
+	 * @param g
+	 *            the graphics to render to. Its origin is the top left corner
+	 *            of the area.
+	 * @param area
+	 *            the area to render, which transforms lon/lat coordinates to
+	 *            pixel coordinates. This is the tile itself, or the enclosing
+	 *            tile of a lower zoom level when rendering metatiles. The
+	 *            instance is reused after this method returns.
+	 * @param zoom
+	 *            the zoom level of the tiles being rendered, which equals the
+	 *            zoom level of the area unless rendering metatiles.
+	 */
+	public void render(Graphics2D g, MercatorTileImage area, int zoom);
+
+}
@@ -0,0 +1,45 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image.render;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import de.topobyte.mercator.image.MercatorTileImage;
+
+/**
+ * Provides existing tiles, for example from a cache or a tile store.
+ *
+ * @author Sebastian Kuerten (sebastian@topobyte.de)
+ */
+public interface TileSource
+{
+
+	/**
+	 * Get the image of a tile. Implementations may be called concurrently from
+	 * multiple threads and need to be thread-safe.
+	 *
+	 * @param tile
+	 *            the tile to get. The instance is not reused by the caller.
+	 * @return the image of the tile or null if the tile is not available.
+	 * @throws IOException
+	 *             on failure while reading the tile.
+	 */
+	public BufferedImage getTile(MercatorTileImage tile) throws IOException;
+
+}
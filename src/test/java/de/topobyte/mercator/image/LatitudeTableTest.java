@@ -0,0 +1,98 @@
+// Copyright 2026 Sebastian Kuerten
+//
+// This file is part of mercator-image.
+//
+// mercator-image is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// mercator-image is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with mercator-image. If not, see <http://www.gnu.org/licenses/>.
+
+package de.topobyte.mercator.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.topobyte.geomath.WGS84;
+
+public class LatitudeTableTest
+{
+
+	private static final int SAMPLES = 1000000;
+
+	private static double maxError()
+	{
+		double max = 0;
+		// evenly spaced samples including both ends of the table
+		for (int i = 0; i <= SAMPLES; i++) {
+			double lat = -LatitudeTable.MAX_LAT
+					+ 2 * LatitudeTable.MAX_LAT * i / SAMPLES;
+			max = Math.max(max, error(lat));
+		}
+		// random samples to hit positions between the regular ones
+		Random random = new Random(42);
+		for (int i = 0; i < SAMPLES; i++) {
+			double lat = (random.nextDouble() * 2 - 1) * LatitudeTable.MAX_LAT;
+			max = Math.max(max, error(lat));
+		}
+		return max;
+	}
+
+	private static double error(double lat)
+	{
+		return Math.abs(LatitudeTable.lat2merc(lat) - WGS84.lat2merc(lat));
+	}
+
+	@Test
+	public void testMaxError()
+	{
+		double max = maxError();
+		assertTrue("max error " + max, max <= LatitudeTable.MAX_ERROR);
+	}
+
+	@Test
+	public void testPixelErrorAtMaxWorldSize()
+	{
+		double pixels = maxError() * LatitudeTable.MAX_WORLDSIZE;
+		assertTrue("max error " + pixels + " px", pixels <= 1 / 16.0);
+	}
+
+	@Test
+	public void testTableEdges()
+	{
+		double max = LatitudeTable.MAX_LAT;
+		assertEquals(WGS84.lat2merc(max), LatitudeTable.lat2merc(max), 1e-15);
+		assertEquals(WGS84.lat2merc(-max), LatitudeTable.lat2merc(-max),
+				1e-15);
+		assertEquals(WGS84.lat2merc(0), LatitudeTable.lat2merc(0),
+				LatitudeTable.MAX_ERROR);
+	}
+
+	@Test
+	public void testOutsideTable()
+	{
+		for (double lat : new double[] { -89, -85.06, 85.06, 89 }) {
+			assertEquals(WGS84.lat2merc(lat), LatitudeTable.lat2merc(lat), 0);
+		}
+	}
+
+	@Test
+	public void testAccurate()
+	{
+		assertTrue(LatitudeTable.isAccurate(LatitudeTable.MAX_WORLDSIZE));
+		assertFalse(LatitudeTable.isAccurate(LatitudeTable.MAX_WORLDSIZE * 2));
+	}
+
+}